@@ -0,0 +1,66 @@
+package com.github.hoangsonww.budget.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.hoangsonww.budget.model.Expense;
+import org.openjdk.jmh.annotations.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization CPU per 10k expense rows for each wire format; bytes on the wire are printed
+ * once per trial so both numbers come out of the same run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+    @Param({"json", "json-gzip", "cbor", "smile", "smile-gzip"})
+    public String format;
+
+    private List<Expense> rows;
+    private ObjectMapper mapper;
+    private boolean gzip;
+
+    @Setup
+    public void setup() throws IOException {
+        rows = new ArrayList<>(10_000);
+        long start = 1_700_000_000_000L;
+        for (int i = 0; i < 10_000; i++) {
+            rows.add(new Expense("exp-" + i, 0L, null, "budget-" + (i % 50), "Expense line " + i, 10.0 + (i % 997) / 7.0,
+                    new Date(start + i * 60_000L)));
+        }
+        gzip = format.endsWith("-gzip");
+        if (format.startsWith("cbor")) {
+            mapper = new ObjectMapper(new CBORFactory()).enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        } else if (format.startsWith("smile")) {
+            mapper = new ObjectMapper(new SmileFactory()).enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        } else {
+            mapper = new ObjectMapper().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        }
+        System.out.printf("%n[%s] bytes per 10k rows: %d%n", format, serialize().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+        if (gzip) {
+            try (GZIPOutputStream z = new GZIPOutputStream(out, 8192)) {
+                mapper.writeValue(z, rows);
+            }
+        } else {
+            mapper.writeValue(out, rows);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,98 @@
+package com.github.hoangsonww.budget.profiling;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.hoangsonww.budget.model.Expense;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.openjdk.jmh.annotations.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the always-on profiling on an allocation-heavy hot path: serialising 200 expenses per
+ * call while a shared monitor is briefly contended. Compares no profiling, the continuous sampler
+ * (attributing every sample to this package, the worst case) and the sampler plus an on-demand JFR
+ * recording with the "profile" settings. The tear-down line also reports the CPU time of the JFR
+ * threads as a share of one core, which is the background part of the cost without the noise of a
+ * throughput comparison.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 8, time = 3)
+@Fork(4)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class ProfilingOverheadBenchmark {
+    @Param({"off", "sampler", "sampler+jfr"})
+    public String mode;
+
+    /** profiling.sampling.allocation-throttle for the sampler modes. */
+    @Param({"20/s"})
+    public String throttle;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Object lock = new Object();
+    private List<Expense> page;
+    private HotPathSampler sampler;
+    private Recording recording;
+    private long counter;
+    private long startedAt;
+    private long jfrCpuAtStart;
+
+    @Setup
+    public void setup() throws Exception {
+        page = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            page.add(new Expense("e" + i, 0L, null, "b" + (i % 7), "expense " + i, i * 1.25, new Date()));
+        }
+        if (!"off".equals(mode)) {
+            ProfilingProperties.Sampling cfg = new ProfilingProperties.Sampling();
+            cfg.setAllocationThrottle(throttle);
+            sampler = new HotPathSampler(cfg, List.of("com.github.hoangsonww.budget"));
+        }
+        if ("sampler+jfr".equals(mode)) {
+            recording = new Recording(Configuration.getConfiguration("profile"));
+            recording.setToDisk(true);
+            recording.start();
+        }
+        startedAt = System.nanoTime();
+        jfrCpuAtStart = jfrCpuNanos();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%n[%s] JFR threads used %.3f%% of one core%n", mode,
+                100.0 * (jfrCpuNanos() - jfrCpuAtStart) / (System.nanoTime() - startedAt));
+        if (recording != null) recording.close();
+        if (sampler != null) {
+            System.out.printf("%n[%s] top allocation: %s%n", mode, sampler.topAllocations(1));
+            sampler.close();
+        }
+    }
+
+    private static long jfrCpuNanos() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long sum = 0;
+        for (ThreadInfo t : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (t == null || !t.getThreadName().startsWith("JFR")) continue;
+            long cpu = threads.getThreadCpuTime(t.getThreadId());
+            if (cpu > 0) sum += cpu;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int serialisePage() throws Exception {
+        byte[] json = mapper.writeValueAsBytes(page);
+        synchronized (lock) {
+            counter += json.length;
+        }
+        return json.length;
+    }
+}
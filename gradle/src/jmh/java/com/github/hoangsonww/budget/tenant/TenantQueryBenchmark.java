@@ -0,0 +1,115 @@
+package com.github.hoangsonww.budget.tenant;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.openjdk.jmh.annotations.*;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a small tenant's query (its newest 100 expenses of the last 30 days, out of 1,000)
+ * while the other 20 tenants grow the collection. Layouts:
+ * <ul>
+ *   <li>{@code global-index}: shared collection with only a createdAt index, as before tenancy;</li>
+ *   <li>{@code tenant-index}: shared collection with the {tenantId, createdAt} index (the default);</li>
+ *   <li>{@code dedicated}: the tenant in its own collection (tenancy.dedicated-tenants).</li>
+ * </ul>
+ * Needs MongoDB at {@code -Dbench.mongo.uri} (default localhost:27017). Each size is seeded once into
+ * database {@code tenant_bench_<size>} and reused; "now" is the seeding time stored with the data, so
+ * a later run matches the same 30 days of documents rather than a window drifting past them. The tear-down prints the keys and documents
+ * examined (explain), which stay flat for the tenant-leading layouts.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TenantQueryBenchmark {
+    private static final String SMALL = "small";
+    private static final int SMALL_DOCS = 1_000;
+    private static final int OTHER_TENANTS = 20;
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    @Param({"100000", "1000000", "5000000"})
+    public int totalDocs;
+
+    @Param({"global-index", "tenant-index", "dedicated"})
+    public String layout;
+
+    private MongoClient client;
+    private MongoCollection<Document> collection;
+    private Bson filter;
+    private long now;
+
+    @Setup
+    public void setup() {
+        client = MongoClients.create(System.getProperty("bench.mongo.uri", "mongodb://localhost:27017"));
+        MongoDatabase db = client.getDatabase("tenant_bench_" + totalDocs);
+        MongoCollection<Document> seeded = db.getCollection("seeded");
+        Document seededAt = seeded.find(Filters.eq("_id", "now")).first();
+        if (seededAt != null && db.getCollection("expenses_global").estimatedDocumentCount() == totalDocs
+                && db.getCollection("expenses").estimatedDocumentCount() == totalDocs
+                && db.getCollection(SMALL + "_expenses").estimatedDocumentCount() == SMALL_DOCS) {
+            now = seededAt.getLong("at");
+        } else {
+            now = System.currentTimeMillis();
+            seed(db.getCollection("expenses_global"), totalDocs, Indexes.ascending("createdAt"));
+            seed(db.getCollection("expenses"), totalDocs, Indexes.ascending("tenantId", "createdAt"));
+            seed(db.getCollection(SMALL + "_expenses"), SMALL_DOCS, Indexes.ascending("tenantId", "createdAt"));
+            seeded.replaceOne(Filters.eq("_id", "now"), new Document("_id", "now").append("at", now), new ReplaceOptions().upsert(true));
+        }
+        collection = db.getCollection(
+                "global-index".equals(layout) ? "expenses_global" : "dedicated".equals(layout) ? SMALL + "_expenses" : "expenses");
+        filter = Filters.and(Filters.eq("tenantId", SMALL), Filters.gte("createdAt", new Date(now - 30 * DAY)));
+    }
+
+    @TearDown
+    public void tearDown() {
+        Document stats = collection.find(filter).sort(Sorts.descending("createdAt")).limit(100)
+                .explain().get("executionStats", Document.class);
+        System.out.printf("%n[%s, %d docs] keysExamined=%s docsExamined=%s%n", layout, totalDocs,
+                stats.get("totalKeysExamined"), stats.get("totalDocsExamined"));
+        client.close();
+    }
+
+    @Benchmark
+    public int smallTenantRecentExpenses() {
+        int n = 0;
+        for (Document ignored : collection.find(filter).sort(Sorts.descending("createdAt")).limit(100)) n++;
+        return n;
+    }
+
+    /** Spreads createdAt over the last year; the small tenant gets the first 1,000 documents. */
+    private void seed(MongoCollection<Document> target, int size, Bson index) {
+        target.drop();
+        target.createIndex(index);
+        SplittableRandom rnd = new SplittableRandom(42);
+        List<Document> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < size; i++) {
+            String tenant = i < SMALL_DOCS ? SMALL : "t" + (i % OTHER_TENANTS);
+            batch.add(new Document("tenantId", tenant)
+                    .append("budgetId", "b" + rnd.nextInt(500))
+                    .append("description", "expense " + i)
+                    .append("amount", rnd.nextDouble(1, 500))
+                    .append("createdAt", new Date(now - rnd.nextLong(365 * DAY))));
+            if (batch.size() == 10_000) {
+                target.insertMany(batch, new InsertManyOptions().ordered(false));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) target.insertMany(batch, new InsertManyOptions().ordered(false));
+    }
+}
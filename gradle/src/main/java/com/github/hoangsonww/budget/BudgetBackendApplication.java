@@ -2,10 +2,15 @@ package com.github.hoangsonww.budget;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 
 @SpringBootApplication
 public class BudgetBackendApplication {
     public static void main(String[] args) {
-        SpringApplication.run(BudgetBackendApplication.class, args);
+        ConfigurableApplicationContext ctx = SpringApplication.run(BudgetBackendApplication.class, args);
+        // CDS training run: load the startup class set, then exit so the JVM can dump the archive.
+        if (Boolean.getBoolean("budget.cds.training")) {
+            System.exit(SpringApplication.exit(ctx));
+        }
     }
 }
@@ -0,0 +1,206 @@
+package com.github.hoangsonww.budget.archive;
+
+import com.github.hoangsonww.budget.tenant.TenantContext;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoCommandException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Monthly archive tier for time-series collections: documents older than the cutoff move from the
+ * hot collection to {@code <collection>_archive_yyyyMM}, created with block compression. Range
+ * reads query the hot collection and only the archive months the range overlaps. The list of
+ * archive collections is cached: the tiering job refreshes it, and otherwise it is listed again
+ * after {@code archive.collection-cache-seconds}, which bounds how long an instance that did not
+ * create a new month misses it.
+ */
+@Component
+public class ArchiveStore {
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String VERSION = "version";
+    private static final Pattern ARCHIVE = Pattern.compile(".+_archive_\\d{6}");
+    private final MongoTemplate mongo;
+    private final String compressor;
+    private final long cacheNanos;
+    private volatile Archives archives;
+
+    public ArchiveStore(MongoTemplate mongo, @Value("${archive.compressor:zstd}") String compressor,
+                        @Value("${archive.collection-cache-seconds:60}") long cacheSeconds) {
+        this.mongo = mongo;
+        this.compressor = compressor;
+        this.cacheNanos = TimeUnit.SECONDS.toNanos(cacheSeconds);
+    }
+
+    /**
+     * The current tenant's rows with {@code from <= createdAt < to} (either bound may be null) from
+     * both tiers, ordered by createdAt.
+     */
+    public <T> List<T> findByCreatedAtBetween(Class<T> type, Date from, Date to, Function<T, String> idOf,
+                                              Function<T, Date> createdAtOf) {
+        String hot = mongo.getCollectionName(type);
+        Map<String, T> rows = new LinkedHashMap<>();
+        for (String month : archiveMonths(hot, from, to)) {
+            for (T row : mongo.find(rangeQuery(from, to), type, month)) rows.put(idOf.apply(row), row);
+        }
+        // Hot rows last: a batch caught mid-move exists in both tiers and the hot copy wins.
+        for (T row : mongo.find(rangeQuery(from, to), type, hot)) rows.put(idOf.apply(row), row);
+        List<T> out = new ArrayList<>(rows.values());
+        out.sort(Comparator.comparing(createdAtOf, Comparator.nullsLast(Comparator.naturalOrder())));
+        return out;
+    }
+
+    /** Lists the archive collections again; called by the tiering job, which is what creates them. */
+    public void refreshArchives() {
+        TreeSet<String> names = new TreeSet<>();
+        for (String name : mongo.getCollectionNames()) {
+            if (ARCHIVE.matcher(name).matches()) names.add(name);
+        }
+        archives = new Archives(Collections.unmodifiableNavigableSet(names), System.nanoTime());
+    }
+
+    /**
+     * Moves one batch of documents older than {@code cutoff} into their monthly archive and returns
+     * how many moved. A hot copy is only deleted while its version is still the one archived; a row
+     * updated meanwhile keeps its hot copy, loses the stale archive copy and is picked up again by
+     * the next batch. Safe to re-run after a crash: archive writes replace by id.
+     */
+    public int archiveBatch(Class<?> type, Date cutoff, int batchSize) {
+        String hot = mongo.getCollectionName(type);
+        Query q = new Query(Criteria.where("createdAt").lt(cutoff)).with(Sort.by("createdAt")).limit(batchSize);
+        List<Document> batch = mongo.find(q, Document.class, hot);
+        if (batch.isEmpty()) return 0;
+        Map<String, List<Document>> byMonth = new TreeMap<>();
+        Map<Object, String> monthOf = new HashMap<>();
+        for (Document d : batch) {
+            String month = archiveName(hot, YearMonth.from(d.getDate("createdAt").toInstant().atZone(ZoneOffset.UTC)));
+            byMonth.computeIfAbsent(month, k -> new ArrayList<>()).add(d);
+            monthOf.put(d.get("_id"), month);
+        }
+        for (Map.Entry<String, List<Document>> e : byMonth.entrySet()) {
+            ensureArchive(e.getKey());
+            List<ReplaceOneModel<Document>> writes = new ArrayList<>(e.getValue().size());
+            for (Document d : e.getValue()) {
+                writes.add(new ReplaceOneModel<>(Filters.eq("_id", d.get("_id")), d, new ReplaceOptions().upsert(true)));
+            }
+            try {
+                mongo.getCollection(e.getKey()).bulkWrite(writes, new BulkWriteOptions().ordered(false));
+            } catch (MongoBulkWriteException ex) {
+                for (BulkWriteError err : ex.getWriteErrors()) {
+                    if (err.getCode() != 11000) throw ex; // a concurrent archiver upserted the same id
+                }
+            }
+        }
+        List<Query> unchanged = new ArrayList<>(batch.size());
+        for (Document d : batch) {
+            unchanged.add(new Query(Criteria.where("_id").is(d.get("_id")).and(VERSION).is(d.get(VERSION))));
+        }
+        int moved = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, hot).remove(unchanged).execute().getDeletedCount();
+        if (moved < batch.size()) {
+            Query left = new Query(Criteria.where("_id").in(monthOf.keySet()));
+            left.fields().include("_id");
+            for (Document d : mongo.find(left, Document.class, hot)) {
+                mongo.remove(new Query(Criteria.where("_id").is(d.get("_id"))), monthOf.get(d.get("_id")));
+            }
+        }
+        return moved;
+    }
+
+    public void ensureHotIndex(Class<?> type) {
+        mongo.indexOps(type).ensureIndex(new Index("createdAt", Sort.Direction.ASC));
+    }
+
+    private List<String> archiveMonths(String hot, Date from, Date to) {
+        String prefix = hot + "_archive_";
+        String first = from == null ? null : archiveName(hot, YearMonth.from(from.toInstant().atZone(ZoneOffset.UTC)));
+        String last = to == null ? null : archiveName(hot, YearMonth.from(to.toInstant().atZone(ZoneOffset.UTC)));
+        Archives cached = archives;
+        if (cached == null || System.nanoTime() - cached.listedAt > cacheNanos) {
+            refreshArchives();
+            cached = archives;
+        }
+        List<String> out = new ArrayList<>();
+        for (String name : cached.names.subSet(prefix, true, prefix + Character.MAX_VALUE, false)) {
+            if (name.length() != prefix.length() + 6) continue;
+            if (first != null && name.compareTo(first) < 0) continue;
+            if (last != null && name.compareTo(last) > 0) continue;
+            out.add(name);
+        }
+        return out;
+    }
+
+    private void ensureArchive(String name) {
+        if (mongo.collectionExists(name)) return;
+        try {
+            mongo.getDb().createCollection(name, new CreateCollectionOptions().storageEngineOptions(
+                    new Document("wiredTiger", new Document("configString", "block_compressor=" + compressor))));
+        } catch (MongoCommandException e) {
+            if (e.getErrorCode() != 48) throw e; // NamespaceExists: another instance created it first
+        }
+        mongo.indexOps(name).ensureIndex(new Index(TenantContext.FIELD, Sort.Direction.ASC).on("createdAt", Sort.Direction.ASC));
+        added(name);
+    }
+
+    /** Makes a month this instance just created visible to its own reads right away. */
+    private synchronized void added(String name) {
+        Archives cached = archives;
+        if (cached == null || cached.names.contains(name)) return;
+        TreeSet<String> names = new TreeSet<>(cached.names);
+        names.add(name);
+        archives = new Archives(Collections.unmodifiableNavigableSet(names), cached.listedAt);
+    }
+
+    private static Query rangeQuery(Date from, Date to) {
+        Query q = TenantContext.scope(new Query());
+        if (from != null || to != null) {
+            Criteria c = Criteria.where("createdAt");
+            if (from != null) c = c.gte(from);
+            if (to != null) c = c.lt(to);
+            q.addCriteria(c);
+        }
+        return q;
+    }
+
+    private static String archiveName(String hot, YearMonth month) {
+        return hot + "_archive_" + month.format(MONTH);
+    }
+
+    private static final class Archives {
+        final NavigableSet<String> names;
+        final long listedAt;
+
+        Archives(NavigableSet<String> names, long listedAt) {
+            this.names = names;
+            this.listedAt = listedAt;
+        }
+    }
+}
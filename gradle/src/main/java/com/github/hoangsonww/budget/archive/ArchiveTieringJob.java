@@ -0,0 +1,78 @@
+package com.github.hoangsonww.budget.archive;
+
+import com.github.hoangsonww.budget.model.Expense;
+import com.github.hoangsonww.budget.model.Transaction;
+import com.github.hoangsonww.budget.tenant.Tenancy;
+import com.github.hoangsonww.budget.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Periodically moves transactions and expenses older than {@code archive.max-age-days} to the archive tier. */
+@Component
+@Lazy(false)
+@ConditionalOnProperty(name = "archive.enabled", havingValue = "true")
+public class ArchiveTieringJob {
+    private static final Logger log = LoggerFactory.getLogger(ArchiveTieringJob.class);
+    private static final List<Class<?>> TIERED = List.of(Transaction.class, Expense.class);
+
+    private final ArchiveStore store;
+    private final Tenancy tenancy;
+    private final long maxAgeMillis;
+    private final int batchSize;
+    private final long maxRunMillis;
+    private volatile boolean indexesReady;
+
+    public ArchiveTieringJob(ArchiveStore store, Tenancy tenancy,
+                             @Value("${archive.max-age-days:365}") long maxAgeDays,
+                             @Value("${archive.batch-size:1000}") int batchSize,
+                             @Value("${archive.max-run-minutes:30}") long maxRunMinutes) {
+        this.store = store;
+        this.tenancy = tenancy;
+        this.maxAgeMillis = TimeUnit.DAYS.toMillis(maxAgeDays);
+        this.batchSize = batchSize;
+        this.maxRunMillis = TimeUnit.MINUTES.toMillis(maxRunMinutes);
+    }
+
+    @Scheduled(cron = "${archive.cron:0 30 3 * * *}")
+    public void run() {
+        // The shared collections (system scope) first, then each dedicated tenant's own collections.
+        List<String> scopes = new ArrayList<>();
+        scopes.add(null);
+        scopes.addAll(tenancy.getDedicatedTenants());
+        long deadline = System.currentTimeMillis() + maxRunMillis;
+        store.refreshArchives();
+        boolean indexes = !indexesReady;
+        for (String tenant : scopes) {
+            TenantContext.runAs(tenant, () -> {
+                if (indexes) TIERED.forEach(store::ensureHotIndex);
+                archive(tenant, deadline);
+            });
+        }
+        indexesReady = true;
+    }
+
+    private void archive(String tenant, long deadline) {
+        Date cutoff = new Date(System.currentTimeMillis() - maxAgeMillis);
+        for (Class<?> type : TIERED) {
+            long moved = 0;
+            int n;
+            do {
+                n = store.archiveBatch(type, cutoff, batchSize);
+                moved += n;
+            } while (n > 0 && System.currentTimeMillis() < deadline);
+            if (moved > 0) {
+                log.info("Archived {} {} rows older than {}{}", moved, type.getSimpleName(), cutoff,
+                        tenant == null ? "" : " for tenant " + tenant);
+            }
+        }
+    }
+}
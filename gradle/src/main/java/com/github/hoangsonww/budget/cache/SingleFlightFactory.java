@@ -0,0 +1,57 @@
+package com.github.hoangsonww.budget.cache;
+
+import com.github.hoangsonww.budget.tenant.TenantContext;
+import com.mongodb.MongoClientSettings;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the per-service {@link SingleFlight} instances and publishes their counters as
+ * {@code singleflight.calls{resource, outcome=loaded|collapsed|window}}. Entities are copied
+ * through the Mongo converter, so callers never share a mutable instance.
+ */
+@Component
+public class SingleFlightFactory {
+    private static final Codec<Document> DOCUMENTS = MongoClientSettings.getDefaultCodecRegistry().get(Document.class);
+
+    private final MeterRegistry registry;
+    private final MongoConverter converter;
+    private final long windowMillis;
+    private final int maxEntries;
+    private final int maxBatch;
+
+    public SingleFlightFactory(MeterRegistry registry, MongoConverter converter,
+                               @Value("${singleflight.window-millis:250}") long windowMillis,
+                               @Value("${singleflight.max-entries:10000}") int maxEntries,
+                               @Value("${singleflight.max-batch:1000}") int maxBatch) {
+        this.registry = registry;
+        this.converter = converter;
+        this.windowMillis = windowMillis;
+        this.maxEntries = maxEntries;
+        this.maxBatch = maxBatch;
+    }
+
+    public <V> SingleFlight<V> create(String resource, Class<V> type) {
+        SingleFlight<V> flight = new SingleFlight<>(windowMillis, maxEntries, maxBatch, TenantContext::scopedKey, v -> copy(v, type));
+        FunctionCounter.builder("singleflight.calls", flight, SingleFlight::getLoads)
+                .tag("resource", resource).tag("outcome", "loaded").register(registry);
+        FunctionCounter.builder("singleflight.calls", flight, SingleFlight::getCollapsed)
+                .tag("resource", resource).tag("outcome", "collapsed").register(registry);
+        FunctionCounter.builder("singleflight.calls", flight, SingleFlight::getWindowHits)
+                .tag("resource", resource).tag("outcome", "window").register(registry);
+        return flight;
+    }
+
+    /** Through BSON bytes, since the converter hands mutable values such as dates through unchanged. */
+    private <V> V copy(V value, Class<V> type) {
+        Document doc = new Document();
+        converter.write(value, doc);
+        return converter.read(type, new RawBsonDocument(doc, DOCUMENTS).decode(DOCUMENTS));
+    }
+}
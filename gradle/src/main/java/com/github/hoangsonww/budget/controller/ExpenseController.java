@@ -1,19 +1,32 @@
 package com.github.hoangsonww.budget.controller;
 
+import com.github.hoangsonww.budget.cache.MultiGetResult;
 import com.github.hoangsonww.budget.model.Expense;
 import com.github.hoangsonww.budget.service.ExpenseService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/expenses")
 public class ExpenseController {
     private final ExpenseService service;
     public ExpenseController(ExpenseService service){this.service=service;}
-    @GetMapping public List<Expense> all(){return service.findAll();}
-    @GetMapping("/{id}") public Expense one(@PathVariable String id){return service.findById(id);}
+    @GetMapping public List<Expense> all(@RequestParam(required=false) @DateTimeFormat(iso=DateTimeFormat.ISO.DATE_TIME) Date from,
+                                 @RequestParam(required=false) @DateTimeFormat(iso=DateTimeFormat.ISO.DATE_TIME) Date to){
+        return from==null&&to==null?service.findAll():service.findByPeriod(from,to);}
+    @GetMapping("/{id}") public ResponseEntity<Expense> one(@PathVariable String id){return ETags.tagged(service.findById(id),Expense::getVersion);}
+    @PostMapping("/_mget") public MultiGetResult<Expense> mget(@RequestBody List<String> ids){return service.findAllById(ids);}
     @PostMapping public Expense create(@RequestBody Expense e){return service.save(e);}
-    @PutMapping("/{id}") public Expense update(@PathVariable String id,@RequestBody Expense e){
-        e.setId(id);return service.save(e);}
+    @PutMapping("/{id}") public ResponseEntity<Expense> update(@PathVariable String id,@RequestHeader(value=HttpHeaders.IF_MATCH,required=false) String ifMatch,
+        @RequestBody Expense e){
+        return ETags.tagged(service.update(id,ETags.version(ifMatch),e),Expense::getVersion);}
+    @PatchMapping("/{id}") public ResponseEntity<Expense> patch(@PathVariable String id,@RequestHeader(value=HttpHeaders.IF_MATCH,required=false) String ifMatch,
+        @RequestBody Map<String,Object> changes){
+        return ETags.tagged(service.patch(id,ETags.version(ifMatch),changes),Expense::getVersion);}
     @DeleteMapping("/{id}") public void delete(@PathVariable String id){service.delete(id);}
 }
@@ -0,0 +1,50 @@
+package com.github.hoangsonww.budget.controller;
+
+import com.github.hoangsonww.budget.report.ReportRow;
+import com.github.hoangsonww.budget.service.ReportService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Supplier;
+
+/** Reports run synchronously; the caller picks {@code token} up front so it can cancel with DELETE /api/reports/{token}. */
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+    private final ReportService service;
+    public ReportController(ReportService service) { this.service = service; }
+
+    @GetMapping("/top-budgets")
+    public List<ReportRow> topBudgets(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to,
+                                      @RequestParam(defaultValue = "100") int limit,
+                                      @RequestParam(defaultValue = "0") long timeoutMillis,
+                                      @RequestParam String token) {
+        return run(limit, () -> service.topBudgetsBySpend(from, to, limit, timeoutMillis, token));
+    }
+
+    @GetMapping("/orders-per-customer")
+    public List<ReportRow> ordersPerCustomer(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to,
+                                             @RequestParam(defaultValue = "100") int limit,
+                                             @RequestParam(defaultValue = "0") long timeoutMillis,
+                                             @RequestParam String token) {
+        return run(limit, () -> service.ordersPerCustomer(from, to, limit, timeoutMillis, token));
+    }
+
+    @DeleteMapping("/{token}")
+    public ResponseEntity<Void> cancel(@PathVariable String token) {
+        return service.cancel(token) ? ResponseEntity.accepted().build() : ResponseEntity.notFound().build();
+    }
+
+    private List<ReportRow> run(int limit, Supplier<List<ReportRow>> report) {
+        if (limit < 1 || limit > 10_000) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and 10000");
+        }
+        return report.get();
+    }
+}
@@ -1,9 +1,13 @@
 package com.github.hoangsonww.budget.controller;
 
+import com.github.hoangsonww.budget.cache.MultiGetResult;
 import com.github.hoangsonww.budget.model.Task;
 import com.github.hoangsonww.budget.service.TaskService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/tasks")
@@ -11,9 +15,14 @@ public class TaskController {
     private final TaskService service;
     public TaskController(TaskService service){this.service=service;}
     @GetMapping public List<Task> all(){return service.findAll();}
-    @GetMapping("/{id}") public Task one(@PathVariable String id){return service.findById(id);}
+    @GetMapping("/{id}") public ResponseEntity<Task> one(@PathVariable String id){return ETags.tagged(service.findById(id),Task::getVersion);}
+    @PostMapping("/_mget") public MultiGetResult<Task> mget(@RequestBody List<String> ids){return service.findAllById(ids);}
     @PostMapping public Task create(@RequestBody Task t){return service.save(t);}
-    @PutMapping("/{id}") public Task update(@PathVariable String id,@RequestBody Task t){
-        t.setId(id);return service.save(t);}
+    @PutMapping("/{id}") public ResponseEntity<Task> update(@PathVariable String id,@RequestHeader(value=HttpHeaders.IF_MATCH,required=false) String ifMatch,
+        @RequestBody Task t){
+        return ETags.tagged(service.update(id,ETags.version(ifMatch),t),Task::getVersion);}
+    @PatchMapping("/{id}") public ResponseEntity<Task> patch(@PathVariable String id,@RequestHeader(value=HttpHeaders.IF_MATCH,required=false) String ifMatch,
+        @RequestBody Map<String,Object> changes){
+        return ETags.tagged(service.patch(id,ETags.version(ifMatch),changes),Task::getVersion);}
     @DeleteMapping("/{id}") public void delete(@PathVariable String id){service.delete(id);}
 }
@@ -1,15 +1,23 @@
 package com.github.hoangsonww.budget.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import javax.persistence.*;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Data @NoArgsConstructor @AllArgsConstructor @Builder
 @Entity
-@Document(collection="customers")
-public class Customer {
+@Document(collection="#{@tenancy.collection('customers')}")
+@CompoundIndexes({@CompoundIndex(name="tenant_email",def="{'tenantId': 1, 'email': 1}")})
+public class Customer implements TenantScoped {
     @Id @org.springframework.data.annotation.Id
     private String id;
+    @Version @org.springframework.data.annotation.Version
+    private Long version;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String tenantId;
     private String name;
     private String email;
     private String phone;
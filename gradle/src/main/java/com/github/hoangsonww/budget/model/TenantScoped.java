@@ -0,0 +1,7 @@
+package com.github.hoangsonww.budget.model;
+
+/** Documents owned by one tenant; repositories stamp and filter on {@code tenantId}. */
+public interface TenantScoped {
+    String getTenantId();
+    void setTenantId(String tenantId);
+}
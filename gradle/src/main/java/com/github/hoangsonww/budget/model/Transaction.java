@@ -1,16 +1,24 @@
 package com.github.hoangsonww.budget.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import javax.persistence.*;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.util.Date;
 
 @Data @NoArgsConstructor @AllArgsConstructor @Builder
 @Entity
-@Document(collection="transactions")
-public class Transaction {
+@Document(collection="#{@tenancy.collection('transactions')}")
+@CompoundIndexes({@CompoundIndex(name="tenant_createdAt",def="{'tenantId': 1, 'createdAt': 1}"),@CompoundIndex(name="tenant_referenceId",def="{'tenantId': 1, 'referenceId': 1}")})
+public class Transaction implements TenantScoped {
     @Id @org.springframework.data.annotation.Id
     private String id;
+    @Version @org.springframework.data.annotation.Version
+    private Long version;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String tenantId;
     private String referenceId;
     private String type;
     private Double amount;
@@ -0,0 +1,29 @@
+package com.github.hoangsonww.budget.outbox;
+
+import com.github.hoangsonww.budget.model.OutboxEvent;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/** In-process stand-in for a broker; keeps the most recent events for inspection. */
+public class InMemoryEventPublisher implements EventPublisher {
+    private final int capacity;
+    private final ConcurrentLinkedDeque<OutboxEvent> events = new ConcurrentLinkedDeque<>();
+
+    public InMemoryEventPublisher(int capacity) { this.capacity = capacity; }
+
+    @Override
+    public Set<String> publish(List<OutboxEvent> batch) {
+        Set<String> acked = new LinkedHashSet<>();
+        for (OutboxEvent e : batch) {
+            events.addLast(e);
+            acked.add(e.getId());
+        }
+        while (events.size() > capacity) events.pollFirst();
+        return acked;
+    }
+
+    public List<OutboxEvent> getEvents() { return new ArrayList<>(events); }
+}
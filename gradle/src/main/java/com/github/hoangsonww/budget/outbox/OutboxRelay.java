@@ -0,0 +1,115 @@
+package com.github.hoangsonww.budget.outbox;
+
+import com.github.hoangsonww.budget.model.OutboxEvent;
+import com.github.hoangsonww.budget.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.scheduling.annotation.Scheduled;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background relay: reads unpublished events oldest first, publishes them in batches and marks
+ * the acknowledged ones. Once an event of an aggregate fails, later events of the same aggregate
+ * stay pending too, so retries never overtake it (at-least-once, ordered per aggregate id).
+ * An event the broker rejects {@code maxAttempts} times moves to {@value #DEAD_LETTERS} so it
+ * stops holding back its aggregate; a failed publish call (broker down) counts against no event.
+ */
+public class OutboxRelay {
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    static final String DEAD_LETTERS = "outbox_dead_letters";
+    private final OutboxEventRepository repo;
+    private final MongoOperations mongo;
+    private final EventPublisher publisher;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retentionMillis;
+    private boolean indexed;
+
+    public OutboxRelay(OutboxEventRepository repo, MongoOperations mongo, EventPublisher publisher,
+                       int batchSize, int maxAttempts, long retentionHours) {
+        this.repo = repo;
+        this.mongo = mongo;
+        this.publisher = publisher;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retentionMillis = TimeUnit.HOURS.toMillis(retentionHours);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-millis:500}")
+    public void relay() {
+        if (!indexed) indexed = ensureIndexes();
+        int published;
+        do {
+            published = relayBatch();
+        } while (published == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.purge-interval-millis:3600000}")
+    public void purge() {
+        long removed = repo.deleteByPublishedAtBefore(new Date(System.currentTimeMillis() - retentionMillis));
+        if (removed > 0) log.debug("Purged {} published outbox events", removed);
+    }
+
+    int relayBatch() {
+        List<OutboxEvent> batch = repo.findByPublishedAtIsNullOrderByCreatedAtAscIdAsc(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) return 0;
+        Set<String> acked;
+        try {
+            acked = publisher.publish(batch);
+        } catch (RuntimeException e) {
+            log.warn("Outbox publish of {} events failed", batch.size(), e);
+            return 0;
+        }
+        Date now = new Date();
+        Set<String> blocked = new HashSet<>();
+        List<OutboxEvent> done = new ArrayList<>();
+        List<OutboxEvent> rejected = new ArrayList<>();
+        for (OutboxEvent e : batch) {
+            if (blocked.contains(e.getAggregateId())) continue;
+            if (acked.contains(e.getId())) {
+                e.setPublishedAt(now);
+                done.add(e);
+            } else {
+                blocked.add(e.getAggregateId());
+                e.setAttempts(e.getAttempts() + 1);
+                rejected.add(e);
+            }
+        }
+        repo.saveAll(done);
+        for (OutboxEvent e : rejected) {
+            if (e.getAttempts() < maxAttempts) {
+                repo.save(e);
+            } else {
+                log.error("Outbox event {} ({} {}) rejected {} times, moved to {}",
+                        e.getId(), e.getEventType(), e.getAggregateId(), e.getAttempts(), DEAD_LETTERS);
+                mongo.save(e, DEAD_LETTERS);
+                repo.delete(e);
+            }
+        }
+        return blocked.isEmpty() ? done.size() : 0;
+    }
+
+    /** Spring Data does not auto-create indexes here, so the relay creates its own before the first poll. */
+    private boolean ensureIndexes() {
+        try {
+            IndexResolver resolver = IndexResolver.create(mongo.getConverter().getMappingContext());
+            for (IndexDefinition index : resolver.resolveIndexFor(OutboxEvent.class)) {
+                mongo.indexOps(OutboxEvent.class).ensureIndex(index);
+            }
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("Could not create outbox indexes, retrying on the next poll: {}", e.getMessage());
+            return false;
+        }
+    }
+}
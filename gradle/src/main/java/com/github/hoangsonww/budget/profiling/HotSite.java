@@ -0,0 +1,11 @@
+package com.github.hoangsonww.budget.profiling;
+
+import lombok.*;
+
+/** One row of a sampled view: {@code weight} is sampled bytes for allocations, blocked nanos for locks. */
+@Data @NoArgsConstructor @AllArgsConstructor
+public class HotSite {
+    private String site;
+    private long samples;
+    private long weight;
+}
@@ -0,0 +1,141 @@
+package com.github.hoangsonww.budget.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On-demand JFR recordings: at most one runs at a time and each stops by itself after a capped
+ * duration. Finished recordings stay downloadable until {@code keep} newer ones replace them.
+ */
+public class JfrRecordings implements AutoCloseable {
+    /**
+     * Events that copy the environment, system properties and command lines (database passwords,
+     * the JWT secret) into the file; never recorded, whatever the settings.
+     */
+    static final List<String> REDACTED = List.of(
+            "jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty", "jdk.JVMInformation", "jdk.SystemProcess");
+    private final String defaultSettings;
+    private final Duration maxDuration;
+    private final int keep;
+    private final Map<Long, Recording> recordings = new LinkedHashMap<>();
+
+    public JfrRecordings(ProfilingProperties.Jfr cfg) {
+        this.defaultSettings = cfg.getSettings();
+        this.maxDuration = Duration.ofSeconds(cfg.getMaxDurationSeconds());
+        this.keep = Math.max(1, cfg.getKeep());
+    }
+
+    /** Starts a recording, or returns null while another one is still running. */
+    public synchronized Map<String, Object> start(Long durationSeconds, String settings) {
+        if (!FlightRecorder.isAvailable()) throw new IllegalStateException("JFR is not available in this JVM");
+        for (Recording r : recordings.values()) {
+            if (r.getState() == RecordingState.RUNNING || r.getState() == RecordingState.DELAYED) return null;
+        }
+        Duration duration = durationSeconds == null || durationSeconds <= 0
+                ? maxDuration : Duration.ofSeconds(Math.min(durationSeconds, maxDuration.getSeconds()));
+        Map<String, String> config;
+        try {
+            config = new HashMap<>(Configuration.getConfiguration(settings == null ? defaultSettings : settings).getSettings());
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("unknown JFR settings: " + settings, e);
+        }
+        for (String event : REDACTED) config.put(event + "#enabled", "false");
+        Recording r = new Recording(config);
+        r.setName("budget-" + r.getId());
+        r.setToDisk(true);
+        r.setDuration(duration);
+        r.start();
+        recordings.put(r.getId(), r);
+        evictFinished();
+        return describe(r);
+    }
+
+    public synchronized List<Map<String, Object>> list() {
+        List<Map<String, Object>> out = new ArrayList<>(recordings.size());
+        for (Recording r : recordings.values()) out.add(describe(r));
+        return out;
+    }
+
+    /** Stops a running recording early; false if unknown. */
+    public synchronized boolean stop(long id) {
+        Recording r = recordings.get(id);
+        if (r == null) return false;
+        if (r.getState() == RecordingState.RUNNING) r.stop();
+        return true;
+    }
+
+    /**
+     * The recording as a .jfr file (what has been captured so far if it is still running); the
+     * temporary copy is deleted once the download stream is closed.
+     */
+    public synchronized Resource download(long id) {
+        Recording r = recordings.get(id);
+        if (r == null) return null;
+        try {
+            Path file = Files.createTempFile(r.getName() + "-", ".jfr");
+            r.dump(file);
+            return new FileSystemResource(file) {
+                @Override
+                public InputStream getInputStream() throws IOException {
+                    return new FilterInputStream(super.getInputStream()) {
+                        @Override
+                        public void close() throws IOException {
+                            super.close();
+                            Files.deleteIfExists(file);
+                        }
+                    };
+                }
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        recordings.values().forEach(Recording::close);
+        recordings.clear();
+    }
+
+    private void evictFinished() {
+        int finished = 0;
+        for (Recording r : recordings.values()) if (r.getState() == RecordingState.STOPPED) finished++;
+        for (Iterator<Recording> it = recordings.values().iterator(); it.hasNext() && finished > keep; ) {
+            Recording r = it.next();
+            if (r.getState() != RecordingState.STOPPED) continue;
+            r.close();
+            it.remove();
+            finished--;
+        }
+    }
+
+    private static Map<String, Object> describe(Recording r) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", r.getId());
+        m.put("name", r.getName());
+        m.put("state", r.getState());
+        m.put("startTime", r.getStartTime());
+        m.put("stopTime", r.getStopTime());
+        m.put("duration", r.getDuration());
+        m.put("size", r.getSize());
+        return m;
+    }
+}
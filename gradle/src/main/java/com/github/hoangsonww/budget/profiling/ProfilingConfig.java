@@ -0,0 +1,46 @@
+package com.github.hoangsonww.budget.profiling;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.Ordered;
+
+@Configuration
+@EnableConfigurationProperties(ProfilingProperties.class)
+@ConditionalOnProperty(name = "profiling.enabled", havingValue = "true", matchIfMissing = true)
+public class ProfilingConfig {
+
+    @Bean(destroyMethod = "close")
+    @Lazy(false)
+    public HotPathSampler hotPathSampler(ProfilingProperties props) {
+        return new HotPathSampler(props.getSampling(), props.getPackages());
+    }
+
+    @Bean(destroyMethod = "close")
+    public JfrRecordings jfrRecordings(ProfilingProperties props) {
+        return new JfrRecordings(props.getJfr());
+    }
+
+    @Bean
+    public SlowRequestFilter slowRequestFilter(ProfilingProperties props) {
+        return new SlowRequestFilter(props.getSlowRequests().getThresholdMillis(), props.getSlowRequests().getKeep());
+    }
+
+    // Registered after the rate limiter so rejected requests are not timed.
+    @Bean
+    public FilterRegistrationBean<SlowRequestFilter> slowRequestFilterRegistration(ProfilingProperties props, SlowRequestFilter filter) {
+        FilterRegistrationBean<SlowRequestFilter> reg = new FilterRegistrationBean<>(filter);
+        reg.addUrlPatterns("/api/*");
+        reg.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        reg.setEnabled(props.getSlowRequests().isEnabled());
+        return reg;
+    }
+
+    @Bean
+    public ProfilingEndpoint profilingEndpoint(HotPathSampler sampler, SlowRequestFilter slowRequests, JfrRecordings recordings) {
+        return new ProfilingEndpoint(sampler, slowRequests, recordings);
+    }
+}
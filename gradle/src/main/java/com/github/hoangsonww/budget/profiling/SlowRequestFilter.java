@@ -0,0 +1,71 @@
+package com.github.hoangsonww.budget.profiling;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the last {@code keep} requests slower than the threshold. Fast requests cost two
+ * {@code nanoTime} reads; slow ones are also committed as a {@link SlowRequestEvent} for JFR.
+ */
+public class SlowRequestFilter extends OncePerRequestFilter {
+    private final long thresholdNanos;
+    private final int keep;
+    private final ArrayDeque<SlowTrace> traces = new ArrayDeque<>();
+
+    public SlowRequestFilter(long thresholdMillis, int keep) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.keep = keep;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            // An exception escaping the chain becomes a 500 after this filter returns.
+            if (elapsed >= thresholdNanos) record(request, failed ? 500 : response.getStatus(), elapsed);
+        }
+    }
+
+    /** Newest first. */
+    public List<SlowTrace> recent() {
+        synchronized (traces) {
+            List<SlowTrace> out = new ArrayList<>(traces.size());
+            traces.descendingIterator().forEachRemaining(out::add);
+            return out;
+        }
+    }
+
+    private void record(HttpServletRequest request, int status, long elapsedNanos) {
+        Thread t = Thread.currentThread();
+        Instant end = Instant.now();
+        SlowTrace trace = new SlowTrace(request.getMethod(), request.getRequestURI(), status, elapsedNanos / 1e6,
+                t.getName(), t.getId(), end.minusNanos(elapsedNanos), end, List.of());
+        synchronized (traces) {
+            if (traces.size() >= keep) traces.pollFirst();
+            traces.addLast(trace);
+        }
+        SlowRequestEvent event = new SlowRequestEvent();
+        if (event.isEnabled()) {
+            event.method = trace.getMethod();
+            event.path = trace.getPath();
+            event.status = status;
+            event.elapsed = elapsedNanos;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.hoangsonww.budget.profiling;
+
+import lombok.*;
+import java.time.Instant;
+import java.util.List;
+
+/** A request above the slow threshold, with the lock/park contention its thread hit meanwhile. */
+@Data @NoArgsConstructor @AllArgsConstructor
+public class SlowTrace {
+    private String method;
+    private String path;
+    private int status;
+    private double millis;
+    private String thread;
+    private long threadId;
+    private Instant startedAt;
+    private Instant endedAt;
+    private List<HotPathSampler.Contention> contention;
+}
@@ -0,0 +1,68 @@
+package com.github.hoangsonww.budget.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adaptive concurrency limit (AIMD on an EWMA of request latency). Requests beyond the
+ * current limit are rejected up front instead of queueing on the Tomcat and Mongo pools.
+ * The limit grows by one per fast completion and shrinks by 10% at most once per window,
+ * so a slow spell does not collapse it to the minimum within a few dozen requests.
+ */
+public class AdaptiveLoadShedder {
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final long windowNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger limit;
+    private final AtomicLong ewmaLatencyNanos = new AtomicLong();
+    private final AtomicLong lastDecreaseNanos = new AtomicLong(System.nanoTime());
+
+    public AdaptiveLoadShedder(int minLimit, int maxLimit, long targetLatencyMillis) {
+        this(minLimit, maxLimit, targetLatencyMillis, 1_000);
+    }
+
+    public AdaptiveLoadShedder(int minLimit, int maxLimit, long targetLatencyMillis, long windowMillis) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("require 1 <= minLimit <= maxLimit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = targetLatencyMillis * 1_000_000L;
+        this.windowNanos = windowMillis * 1_000_000L;
+        this.limit = new AtomicInteger(maxLimit);
+    }
+
+    /** Reserves a slot; callers that get {@code true} must call {@link #release(long)}. */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) return false;
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    public void release(long latencyNanos) {
+        release(latencyNanos, System.nanoTime());
+    }
+
+    void release(long latencyNanos, long nowNanos) {
+        inFlight.decrementAndGet();
+        long previous = ewmaLatencyNanos.get();
+        long ewma = previous == 0 ? latencyNanos : previous + ((latencyNanos - previous) >> 3);
+        ewmaLatencyNanos.lazySet(ewma);
+        if (ewma > targetLatencyNanos) {
+            long last = lastDecreaseNanos.get();
+            if (nowNanos - last >= windowNanos && lastDecreaseNanos.compareAndSet(last, nowNanos)) {
+                limit.getAndUpdate(l -> Math.max(minLimit, l - Math.max(1, l / 10)));
+            }
+        } else {
+            limit.getAndUpdate(l -> Math.min(maxLimit, l + 1));
+        }
+    }
+
+    public int getInFlight() { return inFlight.get(); }
+    public int getLimit() { return limit.get(); }
+    public long getEwmaLatencyMillis() { return ewmaLatencyNanos.get() / 1_000_000L; }
+}
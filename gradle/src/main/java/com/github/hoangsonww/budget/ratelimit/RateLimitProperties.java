@@ -0,0 +1,39 @@
+package com.github.hoangsonww.budget.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "ratelimit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private long defaultCapacity = 100;
+    private double defaultRefillPerSecond = 50;
+    /** First matching rule wins; patterns use "*" for one path segment and a trailing "**" for the rest. */
+    private List<Rule> rules = new ArrayList<>();
+    /** Clients tracked at once; beyond it new clients share an overflow bucket per rule. */
+    private int maxBuckets = 100_000;
+    /** How often buckets that have fully refilled are dropped. */
+    private long sweepIntervalMillis = 10_000;
+    private Shedding shedding = new Shedding();
+
+    @Data
+    public static class Rule {
+        private String method;
+        private String pattern;
+        private long capacity;
+        private double refillPerSecond;
+    }
+
+    @Data
+    public static class Shedding {
+        private boolean enabled = true;
+        private int minConcurrency = 8;
+        private int maxConcurrency = 200;
+        private long targetLatencyMillis = 250;
+        /** The limit is cut by 10% at most once per window while latency is over target. */
+        private long windowMillis = 1_000;
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.hoangsonww.budget.report;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ReportConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReportEngine reportEngine(@Value("${report.parallelism:0}") int parallelism,
+                                     @Value("${report.readers:0}") int readers,
+                                     @Value("${report.partitions:0}") int partitions,
+                                     @Value("${report.chunk-size:2048}") int chunkSize,
+                                     @Value("${report.max-chunks-in-flight:64}") int maxChunksInFlight) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return new ReportEngine(threads, readers > 0 ? readers : threads, partitions > 0 ? partitions : threads * 4,
+                chunkSize, maxChunksInFlight);
+    }
+}
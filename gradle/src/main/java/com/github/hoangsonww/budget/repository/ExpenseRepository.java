@@ -1,8 +1,7 @@
 package com.github.hoangsonww.budget.repository;
 
 import com.github.hoangsonww.budget.model.Expense;
-import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface ExpenseRepository extends MongoRepository<Expense,String> {}
+public interface ExpenseRepository extends TenantScopedRepository<Expense,String> {}
@@ -1,8 +1,7 @@
 package com.github.hoangsonww.budget.repository;
 
 import com.github.hoangsonww.budget.model.Order;
-import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface OrderRepository extends MongoRepository<Order,String> {}
+public interface OrderRepository extends TenantScopedRepository<Order,String> {}
@@ -0,0 +1,14 @@
+package com.github.hoangsonww.budget.repository;
+
+import com.github.hoangsonww.budget.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends MongoRepository<OutboxEvent, String> {
+    List<OutboxEvent> findByPublishedAtIsNullOrderByCreatedAtAscIdAsc(Pageable page);
+    long deleteByPublishedAtBefore(Date cutoff);
+}
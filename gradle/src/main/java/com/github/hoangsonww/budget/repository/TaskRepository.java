@@ -1,8 +1,7 @@
 package com.github.hoangsonww.budget.repository;
 
 import com.github.hoangsonww.budget.model.Task;
-import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface TaskRepository extends MongoRepository<Task,String> {}
+public interface TaskRepository extends TenantScopedRepository<Task,String> {}
@@ -0,0 +1,141 @@
+package com.github.hoangsonww.budget.repository;
+
+import com.github.hoangsonww.budget.model.TenantScoped;
+import com.github.hoangsonww.budget.tenant.TenantContext;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.query.MongoEntityInformation;
+import org.springframework.data.mongodb.repository.support.SimpleMongoRepository;
+import org.springframework.data.support.PageableExecutionUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Base class of every repository. For {@link TenantScoped} documents inside a request, each CRUD
+ * call is restricted to the current tenant and saves are stamped with it; other documents and
+ * system scope behave exactly like {@link SimpleMongoRepository}. The collection name is
+ * resolved per call, so dedicated tenants land in their own collections.
+ */
+public class TenantAwareRepository<T, ID> extends SimpleMongoRepository<T, ID> {
+    private final MongoEntityInformation<T, ID> entity;
+    private final MongoOperations mongo;
+    private final boolean tenantScoped;
+
+    public TenantAwareRepository(MongoEntityInformation<T, ID> metadata, MongoOperations mongoOperations) {
+        super(metadata, mongoOperations);
+        this.entity = metadata;
+        this.mongo = mongoOperations;
+        this.tenantScoped = TenantScoped.class.isAssignableFrom(metadata.getJavaType());
+    }
+
+    /**
+     * An update of a document that does not exist (or belongs to another tenant) fails with
+     * {@link EmptyResultDataAccessException} before the version guard could report it as a conflict.
+     */
+    @Override
+    public <S extends T> S save(S e) {
+        String tenant = tenantScoped ? TenantContext.current() : null;
+        if (tenant != null) ((TenantScoped) e).setTenantId(tenant);
+        // A versioned update matches on _id and version only: refuse ids owned by another tenant.
+        ID id = entity.getId(e);
+        if ((tenant != null || entity.isVersioned()) && !entity.isNew(e) && id != null && !existsById(id)) {
+            throw new EmptyResultDataAccessException(entity.getJavaType().getSimpleName() + " " + id + " not found"
+                    + (tenant == null ? "" : " for tenant " + tenant), 1);
+        }
+        return super.save(e);
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        for (S e : entities) saved.add(save(e));
+        return saved;
+    }
+
+    @Override
+    public Optional<T> findById(ID id) {
+        return Optional.ofNullable(mongo.findOne(byId(id), entity.getJavaType(), entity.getCollectionName()));
+    }
+
+    @Override
+    public boolean existsById(ID id) {
+        return mongo.exists(byId(id), entity.getJavaType(), entity.getCollectionName());
+    }
+
+    @Override
+    public List<T> findAll() {
+        return find(new Query());
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        return find(new Query().with(sort));
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        List<T> page = find(new Query().with(pageable));
+        return PageableExecutionUtils.getPage(page, pageable, this::count);
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<ID> ids) {
+        List<ID> list = new ArrayList<>();
+        ids.forEach(list::add);
+        return find(new Query(Criteria.where(entity.getIdAttribute()).in(list)));
+    }
+
+    @Override
+    public long count() {
+        return mongo.count(scoped(new Query()), entity.getJavaType(), entity.getCollectionName());
+    }
+
+    @Override
+    public void deleteById(ID id) {
+        mongo.remove(byId(id), entity.getJavaType(), entity.getCollectionName());
+    }
+
+    public boolean removeById(ID id) {
+        return mongo.remove(byId(id), entity.getJavaType(), entity.getCollectionName()).getDeletedCount() > 0;
+    }
+
+    @Override
+    public void delete(T e) {
+        deleteById(entity.getRequiredId(e));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends ID> ids) {
+        List<Object> list = new ArrayList<>();
+        ids.forEach(list::add);
+        mongo.remove(scoped(new Query(Criteria.where(entity.getIdAttribute()).in(list))), entity.getJavaType(), entity.getCollectionName());
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        for (T e : entities) delete(e);
+    }
+
+    @Override
+    public void deleteAll() {
+        mongo.remove(scoped(new Query()), entity.getJavaType(), entity.getCollectionName());
+    }
+
+    private List<T> find(Query q) {
+        return mongo.find(scoped(q), entity.getJavaType(), entity.getCollectionName());
+    }
+
+    private Query byId(ID id) {
+        return scoped(new Query(Criteria.where(entity.getIdAttribute()).is(id)));
+    }
+
+    private Query scoped(Query q) {
+        return tenantScoped ? TenantContext.scope(q) : q;
+    }
+}
@@ -1,16 +1,37 @@
 package com.github.hoangsonww.budget.service;
 
+import com.github.hoangsonww.budget.cache.MultiGetResult;
+import com.github.hoangsonww.budget.cache.SingleFlight;
+import com.github.hoangsonww.budget.cache.SingleFlightFactory;
 import com.github.hoangsonww.budget.model.Budget;
+import com.github.hoangsonww.budget.outbox.OutboxRecorder;
 import com.github.hoangsonww.budget.repository.BudgetRepository;
 import org.springframework.stereotype.Service;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class BudgetService {
     private final BudgetRepository repo;
-    public BudgetService(BudgetRepository repo) { this.repo=repo; }
+    private final OutboxRecorder outbox;
+    private final SingleFlight<Budget> reads;
+    private final VersionedUpdates versions;
+    public BudgetService(BudgetRepository repo,OutboxRecorder outbox,SingleFlightFactory flights,VersionedUpdates versions){
+        this.repo=repo;this.outbox=outbox;this.reads=flights.create("Budget",Budget.class);this.versions=versions;}
     public List<Budget> findAll(){ return repo.findAll(); }
-    public Budget findById(String id){ return repo.findById(id).orElse(null);}
-    public Budget save(Budget b){ return repo.save(b); }
-    public void delete(String id){ repo.deleteById(id); }
+    public Budget findById(String id){ return reads.get(id,()->repo.findById(id).orElse(null));}
+    public MultiGetResult<Budget> findAllById(List<String> ids){return reads.getAll(ids,repo::findAllById,Budget::getId);}
+    public Budget save(Budget b){
+        Budget saved=outbox.saved("Budget",()->repo.save(b),Budget::getId);
+        reads.invalidate(saved.getId());return saved;}
+    public Budget update(String id,Long expectedVersion,Budget b){
+        b.setId(id);
+        if(expectedVersion!=null)b.setVersion(expectedVersion);
+        else if(b.getVersion()==null)b.setVersion(versions.currentVersion(Budget.class,id));
+        return save(b);}
+    public Budget patch(String id,Long expectedVersion,Map<String,Object> changes){
+        Budget patched=outbox.saved("Budget",()->versions.patch(Budget.class,id,expectedVersion,changes),Budget::getId);
+        reads.invalidate(id);return patched;}
+    public void delete(String id){
+        outbox.deleted("Budget",id,()->repo.removeById(id));reads.invalidate(id);}
 }
@@ -1,16 +1,37 @@
 package com.github.hoangsonww.budget.service;
 
+import com.github.hoangsonww.budget.cache.MultiGetResult;
+import com.github.hoangsonww.budget.cache.SingleFlight;
+import com.github.hoangsonww.budget.cache.SingleFlightFactory;
 import com.github.hoangsonww.budget.model.Customer;
+import com.github.hoangsonww.budget.outbox.OutboxRecorder;
 import com.github.hoangsonww.budget.repository.CustomerRepository;
 import org.springframework.stereotype.Service;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class CustomerService {
     private final CustomerRepository repo;
-    public CustomerService(CustomerRepository repo){this.repo=repo;}
+    private final OutboxRecorder outbox;
+    private final SingleFlight<Customer> reads;
+    private final VersionedUpdates versions;
+    public CustomerService(CustomerRepository repo,OutboxRecorder outbox,SingleFlightFactory flights,VersionedUpdates versions){
+        this.repo=repo;this.outbox=outbox;this.reads=flights.create("Customer",Customer.class);this.versions=versions;}
     public List<Customer> findAll(){return repo.findAll();}
-    public Customer findById(String id){return repo.findById(id).orElse(null);}
-    public Customer save(Customer c){return repo.save(c);}
-    public void delete(String id){repo.deleteById(id);}
+    public Customer findById(String id){return reads.get(id,()->repo.findById(id).orElse(null));}
+    public MultiGetResult<Customer> findAllById(List<String> ids){return reads.getAll(ids,repo::findAllById,Customer::getId);}
+    public Customer save(Customer c){
+        Customer saved=outbox.saved("Customer",()->repo.save(c),Customer::getId);
+        reads.invalidate(saved.getId());return saved;}
+    public Customer update(String id,Long expectedVersion,Customer c){
+        c.setId(id);
+        if(expectedVersion!=null)c.setVersion(expectedVersion);
+        else if(c.getVersion()==null)c.setVersion(versions.currentVersion(Customer.class,id));
+        return save(c);}
+    public Customer patch(String id,Long expectedVersion,Map<String,Object> changes){
+        Customer patched=outbox.saved("Customer",()->versions.patch(Customer.class,id,expectedVersion,changes),Customer::getId);
+        reads.invalidate(id);return patched;}
+    public void delete(String id){
+        outbox.deleted("Customer",id,()->repo.removeById(id));reads.invalidate(id);}
 }
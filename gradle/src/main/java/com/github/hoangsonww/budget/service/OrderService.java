@@ -1,16 +1,37 @@
 package com.github.hoangsonww.budget.service;
 
+import com.github.hoangsonww.budget.cache.MultiGetResult;
+import com.github.hoangsonww.budget.cache.SingleFlight;
+import com.github.hoangsonww.budget.cache.SingleFlightFactory;
 import com.github.hoangsonww.budget.model.Order;
+import com.github.hoangsonww.budget.outbox.OutboxRecorder;
 import com.github.hoangsonww.budget.repository.OrderRepository;
 import org.springframework.stereotype.Service;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class OrderService {
     private final OrderRepository repo;
-    public OrderService(OrderRepository repo){this.repo=repo;}
+    private final OutboxRecorder outbox;
+    private final SingleFlight<Order> reads;
+    private final VersionedUpdates versions;
+    public OrderService(OrderRepository repo,OutboxRecorder outbox,SingleFlightFactory flights,VersionedUpdates versions){
+        this.repo=repo;this.outbox=outbox;this.reads=flights.create("Order",Order.class);this.versions=versions;}
     public List<Order> findAll(){return repo.findAll();}
-    public Order findById(String id){return repo.findById(id).orElse(null);}
-    public Order save(Order o){return repo.save(o);}
-    public void delete(String id){repo.deleteById(id);}
+    public Order findById(String id){return reads.get(id,()->repo.findById(id).orElse(null));}
+    public MultiGetResult<Order> findAllById(List<String> ids){return reads.getAll(ids,repo::findAllById,Order::getId);}
+    public Order save(Order o){
+        Order saved=outbox.saved("Order",()->repo.save(o),Order::getId);
+        reads.invalidate(saved.getId());return saved;}
+    public Order update(String id,Long expectedVersion,Order o){
+        o.setId(id);
+        if(expectedVersion!=null)o.setVersion(expectedVersion);
+        else if(o.getVersion()==null)o.setVersion(versions.currentVersion(Order.class,id));
+        return save(o);}
+    public Order patch(String id,Long expectedVersion,Map<String,Object> changes){
+        Order patched=outbox.saved("Order",()->versions.patch(Order.class,id,expectedVersion,changes),Order::getId);
+        reads.invalidate(id);return patched;}
+    public void delete(String id){
+        outbox.deleted("Order",id,()->repo.removeById(id));reads.invalidate(id);}
 }
@@ -0,0 +1,126 @@
+package com.github.hoangsonww.budget.service;
+
+import com.github.hoangsonww.budget.model.Expense;
+import com.github.hoangsonww.budget.model.Order;
+import com.github.hoangsonww.budget.report.ReportEngine;
+import com.github.hoangsonww.budget.report.ReportRow;
+import com.github.hoangsonww.budget.report.ReportTicket;
+import com.github.hoangsonww.budget.tenant.TenantContext;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Service
+public class ReportService {
+    private final MongoTemplate mongo;
+    private final ReportEngine engine;
+    private final int chunkSize;
+    private final long maxTimeoutMillis;
+    private final ConcurrentHashMap<String, ReportTicket> running = new ConcurrentHashMap<>();
+
+    public ReportService(MongoTemplate mongo, ReportEngine engine,
+                         @Value("${report.chunk-size:2048}") int chunkSize,
+                         @Value("${report.max-timeout-millis:60000}") long maxTimeoutMillis) {
+        this.mongo = mongo;
+        this.engine = engine;
+        this.chunkSize = chunkSize;
+        this.maxTimeoutMillis = maxTimeoutMillis;
+    }
+
+    /** Top budgets by summed expense amount in [from, to). */
+    public List<ReportRow> topBudgetsBySpend(Date from, Date to, int limit, long timeoutMillis, String token) {
+        String collection = mongo.getCollectionName(Expense.class);
+        return run(token, timeoutMillis, ticket -> engine.topK(
+                sources(Expense.class, collection, from, to, "budgetId", "amount"),
+                Expense::getBudgetId, e -> e.getAmount() == null ? 0 : e.getAmount(), ReportEngine.BY_TOTAL, limit, ticket));
+    }
+
+    /** Customers with the most orders in [from, to); totals are the summed order amounts. */
+    public List<ReportRow> ordersPerCustomer(Date from, Date to, int limit, long timeoutMillis, String token) {
+        String collection = mongo.getCollectionName(Order.class);
+        return run(token, timeoutMillis, ticket -> engine.topK(
+                sources(Order.class, collection, from, to, "customerId", "amount"),
+                Order::getCustomerId, o -> o.getAmount() == null ? 0 : o.getAmount(), ReportEngine.BY_COUNT, limit, ticket));
+    }
+
+    public boolean cancel(String token) {
+        ReportTicket ticket = running.get(TenantContext.scopedKey(token));
+        if (ticket == null) return false;
+        ticket.cancel();
+        return true;
+    }
+
+    /**
+     * One range query per reader so the period is streamed in parallel. Open ends are closed with the
+     * tenant's first and last createdAt, and an unbounded period adds one more slice for the rows that
+     * have no createdAt. Slices split time evenly, not rows, so skewed data gives uneven slices. The
+     * collection is resolved here because the readers don't carry the tenant context.
+     */
+    private <T> List<Supplier<CloseableIterator<T>>> sources(Class<T> type, String collection, Date from, Date to,
+                                                             String... fields) {
+        Date lo = from != null ? from : edge(collection, Sort.Direction.ASC, from, to);
+        Date last = to != null ? null : edge(collection, Sort.Direction.DESC, from, to);
+        Date hi = to != null ? to : last == null ? null : new Date(last.getTime() + 1);
+        List<Query> slices = new ArrayList<>();
+        if (lo != null && hi != null && lo.before(hi)) {
+            long start = lo.getTime();
+            long span = hi.getTime() - start;
+            int n = engine.getReaders();
+            for (int i = 0; i < n; i++) {
+                long a = start + span * i / n;
+                long b = start + span * (i + 1) / n;
+                if (a < b) slices.add(Query.query(Criteria.where("createdAt").gte(new Date(a)).lt(new Date(b))));
+            }
+        }
+        if (from == null && to == null) slices.add(Query.query(Criteria.where("createdAt").is(null)));
+        List<Supplier<CloseableIterator<T>>> sources = new ArrayList<>(slices.size());
+        for (Query slice : slices) {
+            Query q = TenantContext.scope(slice);
+            q.fields().include(fields);
+            q.cursorBatchSize(chunkSize);
+            sources.add(() -> mongo.stream(q, type, collection));
+        }
+        return sources;
+    }
+
+    /** First or last createdAt in [from, to) for the current tenant, or null when there is none. */
+    private Date edge(String collection, Sort.Direction direction, Date from, Date to) {
+        Criteria c = Criteria.where("createdAt").ne(null);
+        if (from != null) c = c.gte(from);
+        if (to != null) c = c.lt(to);
+        Query q = TenantContext.scope(new Query(c)).with(Sort.by(direction, "createdAt")).limit(1);
+        q.fields().include("createdAt");
+        Document first = mongo.findOne(q, Document.class, collection);
+        return first == null ? null : first.getDate("createdAt");
+    }
+
+    private List<ReportRow> run(String token, long timeoutMillis, Function<ReportTicket, List<ReportRow>> body) {
+        long timeout = timeoutMillis <= 0 ? maxTimeoutMillis : Math.min(timeoutMillis, maxTimeoutMillis);
+        ReportTicket ticket = new ReportTicket(token, timeout);
+        String key = TenantContext.scopedKey(ticket.getToken());
+        if (running.putIfAbsent(key, ticket) != null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "report token already in use: " + ticket.getToken());
+        }
+        try {
+            return body.apply(ticket);
+        } catch (CancellationException e) {
+            throw new ResponseStatusException(ticket.isExpired() ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.CONFLICT, e.getMessage());
+        } finally {
+            running.remove(key, ticket);
+        }
+    }
+}
@@ -1,16 +1,37 @@
 package com.github.hoangsonww.budget.service;
 
+import com.github.hoangsonww.budget.cache.MultiGetResult;
+import com.github.hoangsonww.budget.cache.SingleFlight;
+import com.github.hoangsonww.budget.cache.SingleFlightFactory;
 import com.github.hoangsonww.budget.model.Task;
+import com.github.hoangsonww.budget.outbox.OutboxRecorder;
 import com.github.hoangsonww.budget.repository.TaskRepository;
 import org.springframework.stereotype.Service;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class TaskService {
     private final TaskRepository repo;
-    public TaskService(TaskRepository repo){this.repo=repo;}
+    private final OutboxRecorder outbox;
+    private final SingleFlight<Task> reads;
+    private final VersionedUpdates versions;
+    public TaskService(TaskRepository repo,OutboxRecorder outbox,SingleFlightFactory flights,VersionedUpdates versions){
+        this.repo=repo;this.outbox=outbox;this.reads=flights.create("Task",Task.class);this.versions=versions;}
     public List<Task> findAll(){return repo.findAll();}
-    public Task findById(String id){return repo.findById(id).orElse(null);}
-    public Task save(Task t){return repo.save(t);}
-    public void delete(String id){repo.deleteById(id);}
+    public Task findById(String id){return reads.get(id,()->repo.findById(id).orElse(null));}
+    public MultiGetResult<Task> findAllById(List<String> ids){return reads.getAll(ids,repo::findAllById,Task::getId);}
+    public Task save(Task t){
+        Task saved=outbox.saved("Task",()->repo.save(t),Task::getId);
+        reads.invalidate(saved.getId());return saved;}
+    public Task update(String id,Long expectedVersion,Task t){
+        t.setId(id);
+        if(expectedVersion!=null)t.setVersion(expectedVersion);
+        else if(t.getVersion()==null)t.setVersion(versions.currentVersion(Task.class,id));
+        return save(t);}
+    public Task patch(String id,Long expectedVersion,Map<String,Object> changes){
+        Task patched=outbox.saved("Task",()->versions.patch(Task.class,id,expectedVersion,changes),Task::getId);
+        reads.invalidate(id);return patched;}
+    public void delete(String id){
+        outbox.deleted("Task",id,()->repo.removeById(id));reads.invalidate(id);}
 }
@@ -0,0 +1,122 @@
+package com.github.hoangsonww.budget.service;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.hoangsonww.budget.tenant.TenantContext;
+import org.bson.Document;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.Map;
+
+/**
+ * Version-checked writes for the {@code @Version} models: resolves the version a blind PUT
+ * overwrites, and applies PATCH bodies as a single atomic {@code $set}/{@code $unset}/{@code $inc}
+ * instead of rewriting the whole document.
+ */
+@Component
+public class VersionedUpdates {
+    /** PATCH key holding numeric deltas, e.g. {@code {"$inc": {"amount": -12.5}}}. */
+    public static final String INC = "$inc";
+
+    private final MongoTemplate mongo;
+    private final ObjectMapper mapper;
+
+    public VersionedUpdates(MongoTemplate mongo, ObjectMapper mapper) {
+        this.mongo = mongo;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Version to write against when the client sent neither {@code If-Match} nor a body version
+     * (last write wins, as before versioning); null when the document does not exist yet.
+     */
+    public Long currentVersion(Class<?> type, String id) {
+        MongoPersistentEntity<?> entity = entity(type);
+        String field = versionField(entity);
+        Query q = byId(id);
+        q.fields().include(field);
+        Document d = mongo.findOne(q, Document.class, entity.getCollection());
+        if (d == null) return null;
+        Number v = d.get(field, Number.class);
+        if (v != null) return v.longValue();
+        // Written before versioning: start it at 0 so the save below can match on it.
+        mongo.updateFirst(byId(id).addCriteria(Criteria.where(field).exists(false)), new Update().set(field, 0L), entity.getCollection());
+        return 0L;
+    }
+
+    /**
+     * Applies {@code changes} to one document and returns the new state. Top-level keys are
+     * {@code $set} (null values {@code $unset}); numeric deltas go under {@link #INC}. With
+     * {@code expectedVersion} the write only applies to that version.
+     */
+    public <T> T patch(Class<T> type, String id, Long expectedVersion, Map<String, Object> changes) {
+        if (changes == null || changes.isEmpty()) throw new IllegalArgumentException("empty patch");
+        MongoPersistentEntity<?> entity = entity(type);
+        String versionField = versionField(entity);
+        Update update = new Update();
+        for (Map.Entry<String, Object> e : changes.entrySet()) {
+            if (INC.equals(e.getKey())) {
+                if (!(e.getValue() instanceof Map)) throw new IllegalArgumentException(INC + " must be an object");
+                for (Map.Entry<?, ?> inc : ((Map<?, ?>) e.getValue()).entrySet()) {
+                    MongoPersistentProperty p = writable(entity, String.valueOf(inc.getKey()));
+                    if (!Number.class.isAssignableFrom(p.getType())) throw new IllegalArgumentException(p.getName() + " is not numeric");
+                    Object delta = convert(p, inc.getValue());
+                    if (delta == null) throw new IllegalArgumentException(INC + "." + p.getName() + " must be a number");
+                    update.inc(p.getFieldName(), (Number) delta);
+                }
+                continue;
+            }
+            MongoPersistentProperty p = writable(entity, e.getKey());
+            Object value = convert(p, e.getValue());
+            if (value == null) update.unset(p.getFieldName());
+            else update.set(p.getFieldName(), value);
+        }
+        update.inc(versionField, 1);
+
+        Query q = byId(id);
+        if (expectedVersion != null) q.addCriteria(Criteria.where(versionField).is(expectedVersion));
+        T patched = mongo.findAndModify(q, update, FindAndModifyOptions.options().returnNew(true), type);
+        if (patched != null) return patched;
+        if (expectedVersion != null && mongo.exists(byId(id), type)) {
+            throw new OptimisticLockingFailureException(type.getSimpleName() + " " + id + " is no longer at version " + expectedVersion);
+        }
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND, type.getSimpleName() + " " + id + " not found");
+    }
+
+    private MongoPersistentProperty writable(MongoPersistentEntity<?> entity, String name) {
+        MongoPersistentProperty p = entity.getPersistentProperty(name);
+        if (p == null || p.isIdProperty() || p.isVersionProperty() || TenantContext.FIELD.equals(p.getName())) {
+            throw new IllegalArgumentException("cannot patch " + entity.getType().getSimpleName() + "." + name);
+        }
+        return p;
+    }
+
+    private Object convert(MongoPersistentProperty p, Object raw) {
+        if (raw == null) return null;
+        JavaType target = p.getField() != null
+                ? mapper.constructType(p.getField().getGenericType())
+                : mapper.constructType(p.getType());
+        return mapper.convertValue(raw, target);
+    }
+
+    private MongoPersistentEntity<?> entity(Class<?> type) {
+        return mongo.getConverter().getMappingContext().getRequiredPersistentEntity(type);
+    }
+
+    private static String versionField(MongoPersistentEntity<?> entity) {
+        return entity.getRequiredVersionProperty().getFieldName();
+    }
+
+    private static Query byId(String id) {
+        return TenantContext.scope(new Query(Criteria.where("_id").is(id)));
+    }
+}
@@ -0,0 +1,38 @@
+package com.github.hoangsonww.budget.tenant;
+
+import org.springframework.stereotype.Component;
+import java.util.Set;
+
+/**
+ * Resolves collection names per tenant. Models declare
+ * {@code @Document(collection = "#{@tenancy.collection('expenses')}")}, which Spring Data evaluates on
+ * every operation: dedicated tenants get {@code <tenant>_expenses}, everyone else shares
+ * {@code expenses} and is partitioned by {@code tenantId}.
+ */
+@Component("tenancy")
+public class Tenancy {
+    private final Set<String> dedicated;
+    private final String defaultTenant;
+
+    public Tenancy(TenancyProperties props) {
+        this.dedicated = Set.copyOf(props.getDedicatedTenants());
+        this.defaultTenant = props.getDefaultTenant();
+    }
+
+    public String collection(String base) {
+        String tenant = TenantContext.current();
+        return tenant != null && dedicated.contains(tenant) ? tenant + "_" + base : base;
+    }
+
+    public boolean isDedicated(String tenant) {
+        return dedicated.contains(tenant);
+    }
+
+    public Set<String> getDedicatedTenants() {
+        return dedicated;
+    }
+
+    public String getDefaultTenant() {
+        return defaultTenant;
+    }
+}
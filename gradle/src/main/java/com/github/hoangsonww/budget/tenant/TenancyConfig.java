@@ -0,0 +1,30 @@
+package com.github.hoangsonww.budget.tenant;
+
+import com.github.hoangsonww.budget.repository.TenantAwareRepository;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+
+@Configuration
+@EnableConfigurationProperties(TenancyProperties.class)
+@EnableMongoRepositories(basePackageClasses = TenantAwareRepository.class, repositoryBaseClass = TenantAwareRepository.class)
+public class TenancyConfig {
+
+    /** A bean of its own so the scheduler runs its idle-quota sweep. */
+    @Bean
+    public TenantFilter tenantFilterTarget(TenancyProperties props) {
+        return new TenantFilter(props);
+    }
+
+    // After the per-client rate limiter, before slow-request timing.
+    @Bean
+    public FilterRegistrationBean<TenantFilter> tenantFilter(TenantFilter filter) {
+        FilterRegistrationBean<TenantFilter> reg = new FilterRegistrationBean<>(filter);
+        reg.addUrlPatterns("/api/*");
+        reg.setOrder(Ordered.HIGHEST_PRECEDENCE + 15);
+        return reg;
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.hoangsonww.budget.tenant;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "tenancy")
+public class TenancyProperties {
+    private String header = "X-Tenant-Id";
+    /**
+     * Shared secret of the trusted upstream (the gateway that authenticates callers and sets the
+     * tenant header). The tenant header is only honoured on requests that carry it in
+     * {@code proxySecretHeader}; while unset, any tenant header is rejected with 403, so every
+     * request belongs to the default tenant.
+     */
+    private String proxySecret = "";
+    /** Header the trusted upstream sends {@code proxySecret} in; strip it from client requests there. */
+    private String proxySecretHeader = "X-Tenant-Proxy-Secret";
+    /** Tenant for requests without the header; documents written before tenancy are adopted by it. */
+    private String defaultTenant = "default";
+    /** Tenants with their own "<tenant>_<collection>" collections; all others share the base collections. */
+    private Set<String> dedicatedTenants = new HashSet<>();
+    /**
+     * Tenants accepted in the header besides the default, dedicated and {@code tenants.*} ones;
+     * anything else is rejected with 403, even from the trusted upstream.
+     */
+    private Set<String> knownTenants = new HashSet<>();
+    /** How often quotas of tenants that are back at their full allowance are dropped. */
+    private long sweepIntervalMillis = 60_000;
+    private Quota quota = new Quota();
+    /**
+     * Per-tenant quotas; an entry replaces the default quota for that tenant. The default tenant
+     * has no tenant quota unless it has an entry here.
+     */
+    private Map<String, Quota> tenants = new HashMap<>();
+
+    @Data
+    public static class Quota {
+        private long burst = 200;
+        private double requestsPerSecond = 100;
+        /** Requests of one tenant in flight at once, so a large tenant cannot hold every worker thread. */
+        private int maxConcurrent = 32;
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.hoangsonww.budget.tenant;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import java.util.function.Supplier;
+
+/**
+ * Tenant of the current thread. {@link TenantFilter} sets it for every API request; outside a
+ * request (startup, scheduled jobs) it is null, which is system scope: no tenant filter and the
+ * shared collections.
+ */
+public final class TenantContext {
+    public static final String FIELD = "tenantId";
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {}
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T callAs(String tenant, Supplier<T> body) {
+        String previous = CURRENT.get();
+        set(tenant);
+        try {
+            return body.get();
+        } finally {
+            set(previous);
+        }
+    }
+
+    public static void runAs(String tenant, Runnable body) {
+        callAs(tenant, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    /** {@code tenantId = current}, or null in system scope. */
+    public static Criteria criteria() {
+        String tenant = CURRENT.get();
+        return tenant == null ? null : Criteria.where(FIELD).is(tenant);
+    }
+
+    public static Query scope(Query q) {
+        Criteria c = criteria();
+        return c == null ? q : q.addCriteria(c);
+    }
+
+    /** Cache and registry keys that must not collide across tenants. */
+    public static String scopedKey(String key) {
+        String tenant = CURRENT.get();
+        return tenant == null ? key : tenant + '/' + key;
+    }
+
+    static void set(String tenant) {
+        if (tenant == null) CURRENT.remove(); else CURRENT.set(tenant);
+    }
+}
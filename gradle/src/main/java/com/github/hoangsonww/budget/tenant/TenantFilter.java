@@ -0,0 +1,112 @@
+package com.github.hoangsonww.budget.tenant;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.filter.OncePerRequestFilter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the tenant of each API request from {@code tenancy.header}, enforces its quota (token
+ * bucket for rate, semaphore for concurrency) and binds it to {@link TenantContext} for the
+ * duration of the request. The header itself is not authenticated: it is only honoured together
+ * with {@code tenancy.proxy-secret} from the trusted upstream that sets it, and only configured
+ * tenants are accepted. The default tenant has no tenant quota unless one is configured for it,
+ * since it is all header-less traffic and the per-client rate limiter already applies.
+ */
+public class TenantFilter extends OncePerRequestFilter {
+    /** Lowercase, no underscores: tenant ids become collection prefixes ("acme_expenses"). */
+    private static final Pattern TENANT_ID = Pattern.compile("[a-z0-9][a-z0-9-]{0,31}");
+
+    private final TenancyProperties props;
+    private final byte[] proxySecret;
+    private final Set<String> known = new HashSet<>();
+    private final ConcurrentHashMap<String, TenantQuota> quotas = new ConcurrentHashMap<>();
+
+    public TenantFilter(TenancyProperties props) {
+        this.props = props;
+        this.proxySecret = props.getProxySecret() == null ? new byte[0] : props.getProxySecret().getBytes(StandardCharsets.UTF_8);
+        known.add(props.getDefaultTenant());
+        known.addAll(props.getDedicatedTenants());
+        known.addAll(props.getKnownTenants());
+        known.addAll(props.getTenants().keySet());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        String header = req.getHeader(props.getHeader());
+        if (header != null && !header.isBlank() && !fromTrustedProxy(req)) {
+            reject(res, HttpStatus.FORBIDDEN, "tenant header not from the trusted proxy", 0);
+            return;
+        }
+        String tenant = header == null || header.isBlank() ? props.getDefaultTenant() : header.trim().toLowerCase(Locale.ROOT);
+        if (!TENANT_ID.matcher(tenant).matches()) {
+            reject(res, HttpStatus.BAD_REQUEST, "invalid tenant id", 0);
+            return;
+        }
+        if (!known.contains(tenant)) {
+            reject(res, HttpStatus.FORBIDDEN, "unknown tenant", 0);
+            return;
+        }
+        TenantQuota quota = quota(tenant);
+        if (quota != null) {
+            long waitNanos = quota.rate.tryAcquire(System.nanoTime());
+            if (waitNanos > 0) {
+                reject(res, HttpStatus.TOO_MANY_REQUESTS, "tenant request rate exceeded", Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+                return;
+            }
+            if (!quota.inFlight.tryAcquire()) {
+                reject(res, HttpStatus.TOO_MANY_REQUESTS, "tenant concurrency exceeded", 1);
+                return;
+            }
+        }
+        try {
+            TenantContext.set(tenant);
+            chain.doFilter(req, res);
+        } finally {
+            TenantContext.set(null);
+            if (quota != null) quota.inFlight.release();
+        }
+    }
+
+    /** Constant-time, so the secret cannot be guessed byte by byte from response times. */
+    private boolean fromTrustedProxy(HttpServletRequest req) {
+        String sent = req.getHeader(props.getProxySecretHeader());
+        return proxySecret.length > 0 && sent != null && MessageDigest.isEqual(proxySecret, sent.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Null for the default tenant without a quota of its own. */
+    TenantQuota quota(String tenant) {
+        TenantQuota q = quotas.get(tenant);
+        if (q != null) return q;
+        TenancyProperties.Quota configured = props.getTenants().get(tenant);
+        if (configured == null && tenant.equals(props.getDefaultTenant())) return null;
+        return quotas.computeIfAbsent(tenant, t -> new TenantQuota(configured != null ? configured : props.getQuota()));
+    }
+
+    /** Drops quotas that are back at their full allowance; the next request simply creates a fresh one. */
+    @Scheduled(fixedDelayString = "${tenancy.sweep-interval-millis:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        quotas.values().removeIf(q -> q.isIdle(now));
+    }
+
+    private void reject(HttpServletResponse res, HttpStatus status, String message, long retryAfterSeconds) throws IOException {
+        res.setStatus(status.value());
+        if (retryAfterSeconds > 0) res.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        res.setContentType("application/json");
+        res.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+}
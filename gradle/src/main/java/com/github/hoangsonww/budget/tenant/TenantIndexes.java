@@ -0,0 +1,105 @@
+package com.github.hoangsonww.budget.tenant;
+
+import com.github.hoangsonww.budget.model.Budget;
+import com.github.hoangsonww.budget.model.Customer;
+import com.github.hoangsonww.budget.model.Expense;
+import com.github.hoangsonww.budget.model.Order;
+import com.github.hoangsonww.budget.model.Task;
+import com.github.hoangsonww.budget.model.Transaction;
+import com.github.hoangsonww.budget.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the tenant-leading compound indexes declared on the models ({@code @CompoundIndex}) at
+ * startup: once for the shared collections, once per dedicated tenant. On the shared collections
+ * it first assigns documents written before tenancy to the default tenant. This runs on a
+ * background thread, retried every minute until it succeeds, so requests never wait for it;
+ * until the backfill finishes, pre-tenancy documents are not yet visible to the default tenant.
+ */
+@Component
+public class TenantIndexes implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(TenantIndexes.class);
+    public static final List<Class<?>> SCOPED = List.of(
+            Budget.class, Customer.class, Expense.class, Order.class, Task.class, Transaction.class, User.class);
+    private static final long RETRY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final MongoTemplate mongo;
+    private final Tenancy tenancy;
+    private final IndexResolver resolver;
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    public TenantIndexes(MongoTemplate mongo, Tenancy tenancy) {
+        this.mongo = mongo;
+        this.tenancy = tenancy;
+        this.resolver = IndexResolver.create(mongo.getConverter().getMappingContext());
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Thread t = new Thread(this::prepareAll, "tenant-indexes");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /** Waits for the startup preparation; for tests and tools that need the indexes in place. */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return done.await(timeout, unit);
+    }
+
+    private void prepareAll() {
+        // The shared collections (system scope) first, then each dedicated tenant's own collections.
+        List<String> pending = new ArrayList<>();
+        pending.add(null);
+        pending.addAll(tenancy.getDedicatedTenants());
+        while (true) {
+            pending.removeIf(this::prepare);
+            if (pending.isEmpty()) break;
+            try {
+                Thread.sleep(RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        done.countDown();
+    }
+
+    /** Prepares one scope (null for the shared collections); false if it should be retried. */
+    private boolean prepare(String tenant) {
+        try {
+            TenantContext.runAs(tenant, () -> {
+                for (Class<?> type : SCOPED) prepare(type, tenant == null);
+            });
+            return true;
+        } catch (DataAccessException e) {
+            // Indexes only affect speed, so requests go ahead meanwhile.
+            log.warn("Could not prepare collections for {}, retrying in a minute: {}",
+                    tenant == null ? "the shared scope" : "tenant " + tenant, e.getMessage());
+            return false;
+        }
+    }
+
+    private void prepare(Class<?> type, boolean shared) {
+        String collection = mongo.getCollectionName(type);
+        if (shared) {
+            mongo.updateMulti(new Query(Criteria.where(TenantContext.FIELD).exists(false)),
+                    new Update().set(TenantContext.FIELD, tenancy.getDefaultTenant()), collection);
+        }
+        for (IndexDefinition index : resolver.resolveIndexFor(type)) mongo.indexOps(collection).ensureIndex(index);
+    }
+}
@@ -0,0 +1,22 @@
+package com.github.hoangsonww.budget.tenant;
+
+import com.github.hoangsonww.budget.ratelimit.TokenBucket;
+import java.util.concurrent.Semaphore;
+
+/** Request rate and concurrency allowance of one tenant. */
+final class TenantQuota {
+    final TokenBucket rate;
+    final Semaphore inFlight;
+    private final int maxConcurrent;
+
+    TenantQuota(TenancyProperties.Quota q) {
+        this.rate = new TokenBucket(q.getBurst(), q.getRequestsPerSecond());
+        this.inFlight = new Semaphore(q.getMaxConcurrent());
+        this.maxConcurrent = q.getMaxConcurrent();
+    }
+
+    /** Fully refilled and nothing in flight. */
+    boolean isIdle(long nowNanos) {
+        return rate.isIdle(nowNanos) && inFlight.availablePermits() == maxConcurrent;
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.hoangsonww.budget.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.hoangsonww.budget.InMemoryMongo;
+import com.github.hoangsonww.budget.model.Expense;
+import com.github.hoangsonww.budget.model.OutboxEvent;
+import com.github.hoangsonww.budget.repository.ExpenseRepository;
+import com.github.hoangsonww.budget.repository.OutboxEventRepository;
+import com.github.hoangsonww.budget.tenant.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutboxRecorderTest {
+    private final InMemoryMongo mongo = new InMemoryMongo();
+    private final OutboxEventRepository events = mongo.repository(OutboxEventRepository.class);
+    private final ExpenseRepository expenses = mongo.repository(ExpenseRepository.class);
+    private final OutboxRecorder recorder = new OutboxRecorder(events, new ObjectMapper(), TransactionOperations.withoutTransaction());
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    @Test
+    void savedEventsCarryTheTenant() {
+        Expense saved = TenantContext.callAs("acme", () ->
+                recorder.saved("Expense", () -> expenses.save(Expense.builder().description("lunch").build()), Expense::getId));
+
+        assertThat(events.findAll()).singleElement().satisfies(e -> {
+            assertThat(e.getTenantId()).isEqualTo("acme");
+            assertThat(e.getAggregateId()).isEqualTo(saved.getId());
+            assertThat(e.getEventType()).isEqualTo("ExpenseSaved");
+        });
+    }
+
+    @Test
+    void deleteRecordsAnEventOnlyWhenSomethingWasRemoved() {
+        String id = TenantContext.callAs("acme", () -> expenses.save(Expense.builder().description("lunch").build()).getId());
+
+        boolean otherTenant = TenantContext.callAs("globex", () -> recorder.deleted("Expense", id, () -> expenses.removeById(id)));
+        boolean missing = TenantContext.callAs("acme", () -> recorder.deleted("Expense", "no-such-id", () -> expenses.removeById("no-such-id")));
+
+        assertThat(otherTenant).isFalse();
+        assertThat(missing).isFalse();
+        assertThat(events.findAll()).isEmpty();
+        assertThat(expenses.existsById(id)).isTrue();
+
+        boolean own = TenantContext.callAs("acme", () -> recorder.deleted("Expense", id, () -> expenses.removeById(id)));
+
+        assertThat(own).isTrue();
+        assertThat(expenses.existsById(id)).isFalse();
+        OutboxEvent deleted = events.findAll().get(0);
+        assertThat(deleted.getEventType()).isEqualTo("ExpenseDeleted");
+        assertThat(deleted.getTenantId()).isEqualTo("acme");
+        assertThat(deleted.getPayload()).isNull();
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.hoangsonww.budget.security;
+
+import com.github.hoangsonww.budget.ApplicationTest;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Plaintext passwords stored before hashing: users can still log in, and the value is upgraded to bcrypt. */
+class LegacyPasswordTest extends ApplicationTest {
+
+    @Test
+    void plaintextUserLogsInAndIsRehashed() {
+        ObjectId id = seed("legacy-login", "hunter2");
+
+        assertThat(login("legacy-login", "wrong")).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(stored(id)).isEqualTo("hunter2");
+        assertThat(login("legacy-login", "hunter2")).isEqualTo(HttpStatus.OK);
+        assertThat(PasswordHasher.isHash(stored(id))).isTrue();
+        assertThat(login("legacy-login", "hunter2")).isEqualTo(HttpStatus.OK);
+        assertThat(login("legacy-login", "wrong")).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void updateWithoutAPasswordHashesTheStoredPlaintext() {
+        ObjectId id = seed("legacy-put", "swordfish");
+
+        assertThat(call(HttpMethod.PUT, "/api/users/" + id, "acme", "{\"username\":\"legacy-put\",\"email\":\"a@example.com\"}")
+                .getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        assertThat(PasswordHasher.isHash(stored(id))).isTrue();
+        assertThat(login("legacy-put", "swordfish")).isEqualTo(HttpStatus.OK);
+    }
+
+    private ObjectId seed(String username, String password) {
+        ObjectId id = new ObjectId();
+        mongo.getCollection("users").insertOne(new Document("_id", id).append("tenantId", "acme")
+                .append("username", username).append("password", password));
+        return id;
+    }
+
+    private String stored(ObjectId id) {
+        return mongo.getCollection("users").find(new Document("_id", id)).first().getString("password");
+    }
+
+    private HttpStatus login(String username, String password) {
+        return call(HttpMethod.POST, "/api/users/login", "acme",
+                "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}").getStatusCode();
+    }
+}
@@ -0,0 +1,127 @@
+package com.github.hoangsonww.budget.service;
+
+import com.github.hoangsonww.budget.InMemoryMongo;
+import com.github.hoangsonww.budget.model.Expense;
+import com.github.hoangsonww.budget.report.ReportEngine;
+import com.github.hoangsonww.budget.report.ReportRow;
+import com.github.hoangsonww.budget.tenant.TenancyProperties;
+import com.github.hoangsonww.budget.tenant.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+class ReportServiceTest {
+    private static final long DAY = 86_400_000L;
+
+    private final InMemoryMongo mongo = new InMemoryMongo(tenancy());
+    private final ReportEngine engine = new ReportEngine(2, 3, 8, 64, 8);
+
+    @AfterEach
+    void tearDown() {
+        engine.close();
+        mongo.close();
+    }
+
+    @Test
+    void slicedReadsCoverThePeriodAndUndatedRowsOfTheTenantOnly() {
+        TenantContext.runAs("bigco", () -> {
+            save("a", 10, 0);
+            save("a", 5, 3);
+            save("b", 7, 9);
+            save("b", 1, null);
+            save("c", 2, 5);
+        });
+        TenantContext.runAs("acme", () -> save("a", 100, 1));
+        ReportService service = new ReportService(mongo.template(), engine, 2, 60_000);
+
+        List<ReportRow> all = TenantContext.callAs("bigco", () -> service.topBudgetsBySpend(null, null, 10, 0, "all"));
+        List<ReportRow> period = TenantContext.callAs("bigco",
+                () -> service.topBudgetsBySpend(new Date(DAY), new Date(9 * DAY), 10, 0, "period"));
+
+        assertThat(all).containsExactly(new ReportRow("a", 2, 15), new ReportRow("b", 2, 8), new ReportRow("c", 1, 2));
+        assertThat(period).containsExactly(new ReportRow("a", 1, 5), new ReportRow("c", 1, 2));
+    }
+
+    @Test
+    void timeoutIsAGatewayTimeout() {
+        ReportService service = new ReportService(stalling(), engine, 2, 60_000);
+
+        ResponseStatusException e = catchThrowableOfType(
+                () -> service.topBudgetsBySpend(null, null, 10, 100, "slow"), ResponseStatusException.class);
+
+        assertThat(e.getStatus()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    @Test
+    void cancelIsAConflict() throws Exception {
+        ReportService service = new ReportService(stalling(), engine, 2, 60_000);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread report = new Thread(() -> {
+            try {
+                service.topBudgetsBySpend(null, null, 10, 60_000, "cancel-me");
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        report.start();
+        while (!service.cancel("cancel-me")) Thread.sleep(10);
+        report.join(10_000);
+
+        assertThat(failure.get()).isInstanceOfSatisfying(ResponseStatusException.class,
+                e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.CONFLICT));
+        assertThat(service.cancel("cancel-me")).isFalse();
+    }
+
+    private void save(String budget, double amount, Integer day) {
+        mongo.template().save(Expense.builder().tenantId(TenantContext.current()).budgetId(budget).amount(amount)
+                .createdAt(day == null ? null : new Date(day * DAY)).build());
+    }
+
+    /** A template whose reads never finish, so only the deadline or a cancel ends the report. */
+    private MongoTemplate stalling() {
+        MongoTemplate template = mongo.template();
+        return new MongoTemplate(template.getMongoDatabaseFactory(), template.getConverter()) {
+            @Override
+            public <T> CloseableIterator<T> stream(Query query, Class<T> entityType, String collectionName) {
+                return new CloseableIterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        try {
+                            Thread.sleep(5);
+                            return true;
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return false;
+                        }
+                    }
+
+                    @Override
+                    public T next() {
+                        return entityType.cast(Expense.builder().budgetId("slow").amount(1.0).build());
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                };
+            }
+        };
+    }
+
+    private static TenancyProperties tenancy() {
+        TenancyProperties tenancy = new TenancyProperties();
+        tenancy.setDedicatedTenants(Set.of("bigco"));
+        return tenancy;
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.hoangsonww.budget.tenant;
+
+import com.github.hoangsonww.budget.ApplicationTest;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Tenant partitioning end to end: isolation, collection routing and the startup backfill. */
+class TenantIsolationTest extends ApplicationTest {
+    @Autowired
+    private TenantIndexes indexes;
+
+    @Test
+    void tenantsCannotReadOrOverwriteEachOthersRecords() {
+        String id = create("acme", "team lunch");
+
+        assertThat(call(HttpMethod.GET, "/api/expenses/" + id, "acme", null).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(call(HttpMethod.GET, "/api/expenses/" + id, "globex", null).getBody()).isNull();
+        assertThat(ids("globex")).doesNotContain(id);
+        assertThat(ids("acme")).contains(id);
+
+        assertThat(call(HttpMethod.PUT, "/api/expenses/" + id, "globex", "{\"description\":\"taken over\",\"amount\":1}")
+                .getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        Document stored = mongo.getCollection("expenses").find(new Document("_id", new ObjectId(id))).first();
+        assertThat(stored.getString("tenantId")).isEqualTo("acme");
+        assertThat(stored.getString("description")).isEqualTo("team lunch");
+    }
+
+    @Test
+    void deletingAnotherTenantsRecordRemovesNothingAndPublishesNothing() {
+        String id = create("acme", "keep me");
+
+        call(HttpMethod.DELETE, "/api/expenses/" + id, "globex", null);
+
+        assertThat(mongo.getCollection("expenses").countDocuments(new Document("_id", new ObjectId(id)))).isEqualTo(1);
+        assertThat(mongo.getCollection("outbox_events").countDocuments(
+                new Document("aggregateId", id).append("eventType", "ExpenseDeleted"))).isZero();
+
+        call(HttpMethod.DELETE, "/api/expenses/" + id, "acme", null);
+
+        assertThat(mongo.getCollection("expenses").countDocuments(new Document("_id", new ObjectId(id)))).isZero();
+        assertThat(mongo.getCollection("outbox_events").find(
+                new Document("aggregateId", id).append("eventType", "ExpenseDeleted")).first().getString("tenantId")).isEqualTo("acme");
+    }
+
+    @Test
+    void unknownTenantsAreRejected() {
+        assertThat(call(HttpMethod.GET, "/api/expenses", "initech", null).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void dedicatedTenantsAreRoutedToTheirOwnCollections() {
+        String shared = create("acme", "shared");
+        String dedicated = create("bigco", "dedicated");
+
+        assertThat(mongo.getCollection("expenses").countDocuments(new Document("_id", new ObjectId(shared)))).isEqualTo(1);
+        assertThat(mongo.getCollection("bigco_expenses").countDocuments(new Document("_id", new ObjectId(dedicated)))).isEqualTo(1);
+        assertThat(mongo.getCollection("expenses").countDocuments(new Document("_id", new ObjectId(dedicated)))).isZero();
+        assertThat(ids("bigco")).containsExactly(dedicated);
+    }
+
+    @Test
+    void startupAdoptsLegacyDocumentsAndCreatesTenantIndexes() throws Exception {
+        assertThat(indexes.await(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(call(HttpMethod.GET, "/api/expenses/legacy-1", null, null).getBody()).contains("before tenancy");
+        assertThat(call(HttpMethod.GET, "/api/expenses/legacy-1", "acme", null).getBody()).isNull();
+        for (String collection : List.of("expenses", "bigco_expenses")) {
+            assertThat(mongo.indexOps(collection).getIndexInfo()).map(IndexInfo::getName).contains("tenant_createdAt");
+        }
+    }
+
+    private String create(String tenant, String description) {
+        ResponseEntity<String> res = call(HttpMethod.POST, "/api/expenses", tenant,
+                "{\"description\":\"" + description + "\",\"amount\":12.5}");
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return read(res).get("id").asText();
+    }
+
+    private List<String> ids(String tenant) {
+        ResponseEntity<String> res = call(HttpMethod.GET, "/api/expenses", tenant, null);
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return read(res).findValuesAsText("id");
+    }
+}
@@ -0,0 +1,42 @@
+#!/usr/bin/env bash
+# run.sh
+# ------
+# Single-machine load test: MongoDB in Docker, the Spring backend from ../spring (fast-startup
+# profile, rate limiting off so the generator measures the API rather than the limiter; its
+# requests carry no tenant header, so they belong to the default tenant, which has no tenant
+# quota), then the load generator. Extra arguments are passed to the generator, e.g.:
+#   ./run.sh --rate=500 --duration-seconds=120
+# To target an already running backend (e.g. docker-compose), skip this script and use:
+#   mvn -q compile exec:java -Dexec.args="--base-url=http://host:8080"
+
+set -euo pipefail
+
+cd "$(dirname "$0")"
+PORT="${PORT:-18080}"
+MONGO_CONTAINER="budget-loadtest-mongo"
+
+cleanup() {
+  [ -n "${BACKEND_PID:-}" ] && kill "$BACKEND_PID" 2>/dev/null || true
+  docker rm -f "$MONGO_CONTAINER" >/dev/null 2>&1 || true
+}
+trap cleanup EXIT
+
+# Single-node replica set: the outbox writes each entity and its event in one transaction.
+docker run -d --rm --name "$MONGO_CONTAINER" -p 27017:27017 mongo:6 --replSet rs0 >/dev/null
+until docker exec "$MONGO_CONTAINER" mongosh --quiet --eval 'try { rs.status() } catch (e) { rs.initiate() }; db.hello().isWritablePrimary' 2>/dev/null | grep -q true; do
+  sleep 0.5
+done
+(cd ../spring && mvn -q -Pfast-startup -DskipTests package)
+
+java -XX:SharedArchiveFile=../spring/target/app-cds.jsa -Xlog:cds=off -jar ../spring/target/budget-backend-1.0.0.jar \
+  --spring.profiles.active=fast-startup --server.port="$PORT" --ratelimit.enabled=false \
+  --spring.data.mongodb.uri="mongodb://localhost:27017/budget_manager?directConnection=true" \
+  > target-backend.log 2>&1 &
+BACKEND_PID=$!
+
+until curl -s -o /dev/null "http://localhost:$PORT/actuator/health"; do
+  kill -0 "$BACKEND_PID" 2>/dev/null || { echo "backend failed to start, see target-backend.log" >&2; exit 1; }
+  sleep 0.5
+done
+
+mvn -q compile exec:java -Dexec.args="--base-url=http://localhost:$PORT $*"
@@ -0,0 +1,48 @@
+package com.github.hoangsonww.budget.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/** Defaults from {@code loadtest.properties}, overridden by {@code -Dkey=value} and {@code --key=value}. */
+public class LoadConfig {
+    private final Properties props = new Properties();
+
+    public LoadConfig(String[] args) throws IOException {
+        try (InputStream in = LoadConfig.class.getResourceAsStream("/loadtest.properties")) {
+            if (in != null) props.load(in);
+        }
+        for (String key : props.stringPropertyNames()) {
+            String override = System.getProperty(key);
+            if (override != null) props.setProperty(key, override);
+        }
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("expected --key=value, got " + arg);
+            }
+            int eq = arg.indexOf('=');
+            props.setProperty(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+    }
+
+    public String get(String key) {
+        String v = props.getProperty(key);
+        if (v == null) throw new IllegalArgumentException("missing setting " + key);
+        return v.trim();
+    }
+
+    public int getInt(String key) { return Integer.parseInt(get(key)); }
+    public long getLong(String key) { return Long.parseLong(get(key)); }
+    public double getDouble(String key) { return Double.parseDouble(get(key)); }
+
+    /** All {@code prefix.*} entries with the prefix stripped, in a stable order. */
+    public Map<String, String> withPrefix(String prefix) {
+        Map<String, String> out = new LinkedHashMap<>();
+        props.stringPropertyNames().stream().sorted()
+                .filter(k -> k.startsWith(prefix))
+                .forEach(k -> out.put(k.substring(prefix.length()), props.getProperty(k).trim()));
+        return out;
+    }
+}
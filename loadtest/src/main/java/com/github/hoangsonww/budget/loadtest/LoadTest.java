@@ -0,0 +1,158 @@
+package com.github.hoangsonww.budget.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator for the Java API. Requests are issued on a fixed schedule and latency is
+ * measured from the intended send time, so a stalled server shows up in the tail instead of being
+ * hidden by coordinated omission. Exits 1 when an SLO fails.
+ */
+public class LoadTest {
+
+    static final class Op {
+        final String name;
+        final String resource;
+        final String kind;
+        final String sloClass;
+        final double weight;
+        final Recorder recorder = new Recorder(TimeUnit.SECONDS.toMicros(60), 3);
+        final Histogram total = new Histogram(TimeUnit.SECONDS.toMicros(60), 3);
+        final LongAdder ok = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder errors = new LongAdder();
+
+        Op(String name, double weight) {
+            this.name = name;
+            int dot = name.indexOf('.');
+            this.resource = name.substring(0, dot);
+            this.kind = name.substring(dot + 1);
+            this.sloClass = kind.equals("list") ? "list" : (kind.equals("get") || kind.equals("mget")) ? "read" : "write";
+            this.weight = weight;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig cfg;
+        try {
+            cfg = new LoadConfig(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        System.exit(new LoadTest().run(cfg) ? 0 : 1);
+    }
+
+    boolean run(LoadConfig cfg) throws Exception {
+        List<Op> ops = new ArrayList<>();
+        for (Map.Entry<String, String> e : cfg.withPrefix("mix.").entrySet()) {
+            double w = Double.parseDouble(e.getValue());
+            if (w > 0) ops.add(new Op(e.getKey(), w));
+        }
+        double[] cumulative = new double[ops.size()];
+        double sum = 0;
+        for (int i = 0; i < ops.size(); i++) cumulative[i] = sum += ops.get(i).weight;
+
+        SplittableRandom rnd = new SplittableRandom(cfg.getLong("random-seed"));
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5)).build();
+        Workload workload = new Workload(http, cfg.get("base-url"), cfg.getDouble("zipf.exponent"));
+        workload.seed(cfg.getInt("seed.per-resource"), cfg.getInt("seed.expenses"), rnd);
+
+        double rate = cfg.getDouble("rate");
+        long intervalNanos = (long) (1e9 / rate);
+        long warmupNanos = TimeUnit.SECONDS.toNanos(cfg.getLong("warmup-seconds"));
+        long durationNanos = TimeUnit.SECONDS.toNanos(cfg.getLong("duration-seconds"));
+        Semaphore inFlight = new Semaphore(cfg.getInt("max-in-flight"));
+        LongAdder dropped = new LongAdder();
+
+        System.out.printf("running %.0f req/s for %ds (+%ds warm-up) against %s%n", rate,
+                cfg.getLong("duration-seconds"), cfg.getLong("warmup-seconds"), cfg.get("base-url"));
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+        for (long intended = start; intended < end; intended += intervalNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+            double pick = rnd.nextDouble() * sum;
+            int i = 0;
+            while (cumulative[i] < pick) i++;
+            Op op = ops.get(i);
+            boolean measured = intended >= measureFrom;
+            if (!inFlight.tryAcquire()) {
+                if (measured) dropped.increment();
+                continue;
+            }
+            long sentAt = intended;
+            http.sendAsync(workload.build(op.resource, op.kind, rnd.split()), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((resp, ex) -> {
+                        inFlight.release();
+                        if (!measured) return;
+                        op.recorder.recordValue(Math.max(0, (System.nanoTime() - sentAt) / 1000));
+                        if (ex != null || resp.statusCode() >= 500 && resp.statusCode() != 503) op.errors.increment();
+                        // 409: concurrent updates of a hot id losing the version race, not a server fault
+                        else if (resp.statusCode() == 409 || resp.statusCode() == 429 || resp.statusCode() == 503) op.rejected.increment();
+                        else if (resp.statusCode() >= 400) op.errors.increment();
+                        else op.ok.increment();
+                    });
+        }
+        inFlight.acquire(cfg.getInt("max-in-flight"));
+        double seconds = durationNanos / 1e9;
+        for (Op op : ops) op.recorder.getIntervalHistogramInto(op.total);
+        return report(cfg, ops, seconds, rate, dropped.sum());
+    }
+
+    private boolean report(LoadConfig cfg, List<Op> ops, double seconds, double rate, long dropped) throws IOException {
+        Path outDir = Path.of(cfg.get("output-dir"));
+        Files.createDirectories(outDir);
+        boolean pass = true;
+        long requests = 0, errors = 0;
+        StringBuilder table = new StringBuilder(String.format("%-22s %8s %9s %8s %11s %9s %9s %9s %9s  %s%n",
+                "operation", "count", "req/s", "errors", "409/429/503", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "SLO"));
+        for (Op op : ops) {
+            Histogram h = op.total;
+            long count = h.getTotalCount();
+            requests += count;
+            errors += op.errors.sum();
+            double p99 = h.getValueAtPercentile(99) / 1000.0;
+            double limit = cfg.getDouble("slo." + op.sloClass + ".p99-millis");
+            boolean ok = count == 0 || p99 <= limit;
+            pass &= ok;
+            table.append(String.format("%-22s %8d %9.1f %8d %11d %9.2f %9.2f %9.2f %9.2f  %s (p99<=%.0f)%n",
+                    op.name, count, count / seconds, op.errors.sum(), op.rejected.sum(),
+                    h.getValueAtPercentile(50) / 1000.0, p99, h.getValueAtPercentile(99.9) / 1000.0,
+                    h.getMaxValue() / 1000.0, ok ? "PASS" : "FAIL", limit));
+            try (PrintStream out = new PrintStream(outDir.resolve(op.name + ".hgrm").toFile())) {
+                h.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        double errorRate = requests == 0 ? 1 : errors / (double) requests;
+        double throughputRatio = (requests / seconds) / rate;
+        boolean errorOk = errorRate <= cfg.getDouble("slo.max-error-rate");
+        boolean throughputOk = throughputRatio >= cfg.getDouble("slo.min-throughput-ratio");
+        pass &= errorOk && throughputOk;
+        table.append(String.format("%ntotal %d requests, %.1f req/s (%.0f%% of target, %s), error rate %.3f%% (%s), "
+                        + "client-side drops %d%nRESULT: %s%n", requests, requests / seconds, throughputRatio * 100,
+                throughputOk ? "PASS" : "FAIL", errorRate * 100, errorOk ? "PASS" : "FAIL", dropped,
+                pass ? "PASS" : "FAIL"));
+        System.out.print(table);
+        Files.writeString(outDir.resolve("summary.txt"), table.toString());
+        return pass;
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.hoangsonww.budget.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/** Builds requests for the seven resources and seeds the ids that reads and updates target. */
+public class Workload {
+    public static final List<String> RESOURCES =
+            List.of("budgets", "expenses", "users", "customers", "orders", "tasks", "transactions");
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final double zipfExponent;
+    private final Map<String, String[]> ids = new HashMap<>();
+    /** One distribution per resource over exactly its seeded ids, so every rank maps to one id. */
+    private final Map<String, Zipf> zipfs = new HashMap<>();
+
+    public Workload(HttpClient http, String baseUrl, double zipfExponent) {
+        this.http = http;
+        this.baseUrl = baseUrl.replaceAll("/+$", "");
+        this.zipfExponent = zipfExponent;
+    }
+
+    /** Creates {@code perResource} rows for every resource ({@code expenses} rows of expenses). */
+    public void seed(int perResource, int expenses, SplittableRandom rnd) throws InterruptedException {
+        seedResource("budgets", perResource, rnd);
+        seedResource("customers", perResource, rnd);
+        for (String r : RESOURCES) {
+            if (!ids.containsKey(r)) seedResource(r, r.equals("expenses") ? expenses : perResource, rnd);
+        }
+    }
+
+    private void seedResource(String resource, int count, SplittableRandom rnd) throws InterruptedException {
+        Semaphore permits = new Semaphore(32);
+        List<CompletableFuture<String>> created = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            permits.acquire();
+            created.add(http.sendAsync(create(resource, rnd.split()), HttpResponse.BodyHandlers.ofString())
+                    .thenApply(resp -> {
+                        Matcher m = ID.matcher(resp.body());
+                        return resp.statusCode() < 300 && m.find() ? m.group(1) : null;
+                    })
+                    .whenComplete((id, ex) -> permits.release()));
+        }
+        String[] out = created.stream().map(f -> f.exceptionally(ex -> null).join())
+                .filter(id -> id != null).toArray(String[]::new);
+        if (out.length == 0) throw new IllegalStateException("could not seed any " + resource + " at " + baseUrl);
+        ids.put(resource, out);
+        zipfs.put(resource, new Zipf(out.length, zipfExponent));
+        System.out.printf("seeded %-12s %6d%n", resource, out.length);
+    }
+
+    public HttpRequest build(String resource, String kind, SplittableRandom rnd) {
+        switch (kind) {
+            case "get": return request("/api/" + resource + "/" + hotId(resource, rnd)).GET().build();
+            case "list": return request("/api/" + resource).GET().build();
+            case "mget": return json(request("/api/" + resource + "/_mget"), "POST", mgetBody(resource, rnd));
+            case "create": return create(resource, rnd);
+            case "update": return json(request("/api/" + resource + "/" + hotId(resource, rnd)), "PUT", body(resource, rnd));
+            default: throw new IllegalArgumentException("unknown operation kind " + kind);
+        }
+    }
+
+    private HttpRequest create(String resource, SplittableRandom rnd) {
+        return json(request("/api/" + resource), "POST", body(resource, rnd));
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(10));
+    }
+
+    private static HttpRequest json(HttpRequest.Builder b, String method, String body) {
+        return b.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private String hotId(String resource, SplittableRandom rnd) {
+        return ids.get(resource)[zipfs.get(resource).sample(rnd.nextDouble())];
+    }
+
+    private String mgetBody(String resource, SplittableRandom rnd) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 20; i++) {
+            if (i > 0) sb.append(',');
+            sb.append('"').append(hotId(resource, rnd)).append('"');
+        }
+        return sb.append(']').toString();
+    }
+
+    private String body(String resource, SplittableRandom rnd) {
+        int n = rnd.nextInt(1_000_000);
+        double amount = Math.round(rnd.nextDouble(1, 2000) * 100) / 100.0;
+        String now = "\"createdAt\":\"" + Instant.now().truncatedTo(ChronoUnit.MILLIS) + "\"";
+        switch (resource) {
+            case "budgets": return "{\"name\":\"Budget " + n + "\",\"limit\":" + amount * 10 + "," + now + "}";
+            case "expenses": return "{\"budgetId\":\"" + ref("budgets", rnd) + "\",\"description\":\"Expense " + n
+                    + "\",\"amount\":" + amount + "," + now + "}";
+            case "users": return "{\"username\":\"user" + n + "\",\"email\":\"user" + n
+                    + "@example.com\",\"password\":\"pw-" + n + "\"," + now + "}";
+            case "customers": return "{\"name\":\"Customer " + n + "\",\"email\":\"c" + n
+                    + "@example.com\",\"phone\":\"555-" + (1000 + n % 9000) + "\"}";
+            case "orders": return "{\"customerId\":\"" + ref("customers", rnd) + "\",\"amount\":" + amount
+                    + ",\"status\":\"NEW\"," + now + "}";
+            case "tasks": return "{\"description\":\"Task " + n + "\",\"status\":\"OPEN\"," + now + "}";
+            case "transactions": return "{\"referenceId\":\"ref-" + n + "\",\"type\":\""
+                    + (rnd.nextBoolean() ? "DEBIT" : "CREDIT") + "\",\"amount\":" + amount + "," + now + "}";
+            default: throw new IllegalArgumentException("unknown resource " + resource);
+        }
+    }
+
+    private String ref(String resource, SplittableRandom rnd) {
+        return ids.containsKey(resource) ? hotId(resource, rnd) : "unknown";
+    }
+}
@@ -0,0 +1,22 @@
+package com.github.hoangsonww.budget.loadtest;
+
+/** Zipf(s) over ranks 0..n-1 by inverse CDF; rank 0 is the hottest key. */
+public class Zipf {
+    private final double[] cdf;
+
+    public Zipf(int n, double exponent) {
+        cdf = new double[Math.max(1, n)];
+        double sum = 0;
+        for (int i = 0; i < cdf.length; i++) cdf[i] = sum += 1.0 / Math.pow(i + 1, exponent);
+        for (int i = 0; i < cdf.length; i++) cdf[i] /= sum;
+    }
+
+    public int sample(double uniform) {
+        int lo = 0, hi = cdf.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cdf[mid] < uniform) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+}
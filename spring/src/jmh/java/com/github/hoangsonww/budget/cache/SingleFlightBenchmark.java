@@ -0,0 +1,74 @@
+package com.github.hoangsonww.budget.cache;
+
+import org.openjdk.jmh.annotations.*;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Dashboard refresh storm: 32 threads issue findById with Zipf(s=1.1)-distributed ids over 10k
+ * keys against a simulated repository that parks ~1ms per call. The tear-down line reports how
+ * many loader calls were made per request with and without coalescing. This measures the
+ * coalescing logic only; the load it takes off a real MongoDB depends on the production key
+ * distribution and query latency, so read that from the {@code singleflight.calls} metrics.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(32)
+@State(Scope.Benchmark)
+public class SingleFlightBenchmark {
+    @Param({"off", "coalesce", "coalesce+window"})
+    public String mode;
+
+    private SingleFlight<String> flight;
+    private double[] cdf;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder queries = new LongAdder();
+
+    @Setup
+    public void setup() {
+        flight = new SingleFlight<>("coalesce+window".equals(mode) ? 250 : 0, 100_000);
+        cdf = new double[10_000];
+        double sum = 0;
+        for (int i = 0; i < cdf.length; i++) cdf[i] = sum += 1.0 / Math.pow(i + 1, 1.1);
+        for (int i = 0; i < cdf.length; i++) cdf[i] /= sum;
+    }
+
+    @TearDown
+    public void report() {
+        System.out.printf("%n[%s] requests=%d loaderCalls=%d (%.3f per request)%n", mode, requests.sum(),
+                queries.sum(), queries.sum() / (double) Math.max(1, requests.sum()));
+    }
+
+    @State(Scope.Thread)
+    public static class Rnd {
+        final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Benchmark
+    public String findById(Rnd rnd) {
+        String id = "id-" + zipf(rnd.random.nextDouble());
+        requests.increment();
+        if ("off".equals(mode)) return query(id);
+        return flight.get(id, () -> query(id));
+    }
+
+    private String query(String id) {
+        queries.increment();
+        LockSupport.parkNanos(1_000_000L);
+        return id;
+    }
+
+    private int zipf(double u) {
+        int lo = 0, hi = cdf.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cdf[mid] < u) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.hoangsonww.budget.ratelimit;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimitBenchmark {
+    private TokenBucket bucket;
+    private AdaptiveLoadShedder shedder;
+    private RateLimitFilter filter;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setup() {
+        bucket = new TokenBucket(Long.MAX_VALUE / 4, 1e9);
+        shedder = new AdaptiveLoadShedder(8, 100_000, 1_000);
+        RateLimitProperties props = new RateLimitProperties();
+        props.setDefaultCapacity(Long.MAX_VALUE / 4);
+        props.setDefaultRefillPerSecond(1e9);
+        RateLimitProperties.Rule list = new RateLimitProperties.Rule();
+        list.setMethod("GET");
+        list.setPattern("/api/*");
+        list.setCapacity(Long.MAX_VALUE / 4);
+        list.setRefillPerSecond(1e9);
+        props.getRules().add(list);
+        filter = new RateLimitFilter(props, shedder);
+        request = new MockHttpServletRequest("GET", "/api/budgets/42");
+        request.setRemoteAddr("10.0.0.7");
+    }
+
+    @Benchmark
+    public long bucketAcquire() { return bucket.tryAcquire(System.nanoTime()); }
+
+    @Benchmark
+    @Threads(4)
+    public long bucketAcquireContended() { return bucket.tryAcquire(System.nanoTime()); }
+
+    @Benchmark
+    public boolean shedderAcquireRelease() {
+        boolean ok = shedder.tryAcquire();
+        if (ok) shedder.release(100_000L);
+        return ok;
+    }
+
+    @Benchmark
+    public long filterDecision() {
+        int rule = filter.matchRule(request.getMethod(), request.getRequestURI());
+        return filter.bucketFor(rule, filter.clientKey(request)).tryAcquire(System.nanoTime());
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.hoangsonww.budget.report;
+
+import org.openjdk.jmh.annotations.*;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-100 over 2M synthetic expenses across 50k budgets, for 1..N fork/join workers. Compare the
+ * per-op time across {@code parallelism} values to read off the scaling curve.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReportEngineBenchmark {
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private String[] budgetIds;
+    private double[] amounts;
+    private ReportEngine engine;
+
+    @Setup
+    public void setup() {
+        SplittableRandom rnd = new SplittableRandom(42);
+        String[] keys = new String[50_000];
+        for (int i = 0; i < keys.length; i++) keys[i] = "budget-" + i;
+        budgetIds = new String[2_000_000];
+        amounts = new double[budgetIds.length];
+        for (int i = 0; i < budgetIds.length; i++) {
+            budgetIds[i] = keys[rnd.nextInt(keys.length)];
+            amounts[i] = rnd.nextDouble(1, 500);
+        }
+        engine = new ReportEngine(parallelism, parallelism * 4, 2048, 64);
+    }
+
+    @TearDown
+    public void tearDown() { engine.close(); }
+
+    @Benchmark
+    public List<ReportRow> topBudgets() {
+        return engine.topK(new IndexIterator(budgetIds.length), i -> budgetIds[i], i -> amounts[i],
+                ReportEngine.BY_TOTAL, 100, new ReportTicket("bench", 60_000));
+    }
+
+    private static final class IndexIterator implements java.util.Iterator<Integer> {
+        private final int size;
+        private int next;
+
+        IndexIterator(int size) { this.size = size; }
+
+        @Override public boolean hasNext() { return next < size; }
+        @Override public Integer next() { return next++; }
+    }
+}
@@ -0,0 +1,14 @@
+package com.github.hoangsonww.budget.cache;
+
+import lombok.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Response of the {@code _mget} endpoints: entities keyed by id, plus the ids that do not exist. */
+@Data @NoArgsConstructor @AllArgsConstructor
+public class MultiGetResult<V> {
+    private Map<String, V> found = new LinkedHashMap<>();
+    private List<String> missing = new ArrayList<>();
+}
@@ -0,0 +1,195 @@
+package com.github.hoangsonww.budget.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Request coalescing for reads by key: concurrent callers for the same key share one in-flight
+ * load, and the result is kept for a short window to absorb bursts. Writers call
+ * {@link #invalidate(String)}; a load that races with an invalidation is not cached. Keys pass
+ * through {@code scope} first, so callers in different scopes (tenants) never share an entry.
+ * The kept value is a private {@code copy} and every caller but the loader gets its own copy, so
+ * callers may modify what they get back.
+ */
+public class SingleFlight<V> {
+    private final long windowNanos;
+    private final int maxEntries;
+    private final int maxBatch;
+    private final UnaryOperator<String> scope;
+    private final UnaryOperator<V> copy;
+    private final ConcurrentHashMap<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Entry<V>> recent = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+    private final LongAdder windowHits = new LongAdder();
+
+    public SingleFlight(long windowMillis, int maxEntries) { this(windowMillis, maxEntries, 1000); }
+
+    public SingleFlight(long windowMillis, int maxEntries, int maxBatch) {
+        this(windowMillis, maxEntries, maxBatch, UnaryOperator.identity());
+    }
+
+    public SingleFlight(long windowMillis, int maxEntries, int maxBatch, UnaryOperator<String> scope) {
+        this(windowMillis, maxEntries, maxBatch, scope, UnaryOperator.identity());
+    }
+
+    public SingleFlight(long windowMillis, int maxEntries, int maxBatch, UnaryOperator<String> scope, UnaryOperator<V> copy) {
+        this.windowNanos = windowMillis * 1_000_000L;
+        this.maxEntries = maxEntries;
+        this.maxBatch = maxBatch;
+        this.scope = scope;
+        this.copy = copy;
+    }
+
+    public V get(String id, Supplier<V> loader) {
+        String key = scope.apply(id);
+        Entry<V> hit = peek(key);
+        if (hit != null) {
+            windowHits.increment();
+            return share(hit.value);
+        }
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            collapsed.increment();
+            return share(await(leader));
+        }
+        loads.increment();
+        try {
+            V value = loader.get();
+            complete(key, mine, share(value));
+            return value;
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Batched lookup: ids with a fresh result in the window are answered from it, the rest are
+     * loaded with a single call (one {@code $in} query) and remembered. While the batch loads,
+     * concurrent {@link #get} calls for its ids wait for it instead of loading again.
+     */
+    public MultiGetResult<V> getAll(Collection<String> ids, Function<List<String>, Iterable<V>> loader,
+                                    Function<V, String> idOf) {
+        if (ids.size() > maxBatch) {
+            throw new IllegalArgumentException("at most " + maxBatch + " ids per request");
+        }
+        if (ids.contains(null)) throw new IllegalArgumentException("ids must not be null");
+        Map<String, V> resolved = new HashMap<>();
+        List<String> pending = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(ids)) {
+            Entry<V> hit = peek(scope.apply(id));
+            if (hit != null) {
+                windowHits.increment();
+                resolved.put(id, share(hit.value));
+            } else {
+                pending.add(id);
+            }
+        }
+        if (!pending.isEmpty()) {
+            // Same guard as get(): an id is only cached if no invalidation removed our marker meanwhile.
+            Map<String, CompletableFuture<V>> mine = new HashMap<>();
+            for (String id : pending) {
+                CompletableFuture<V> f = new CompletableFuture<>();
+                if (inFlight.putIfAbsent(scope.apply(id), f) == null) mine.put(id, f);
+            }
+            loads.increment();
+            try {
+                for (V v : loader.apply(pending)) resolved.put(idOf.apply(v), v);
+            } catch (RuntimeException | Error e) {
+                mine.forEach((id, f) -> {
+                    inFlight.remove(scope.apply(id), f);
+                    f.completeExceptionally(e);
+                });
+                throw e;
+            }
+            mine.forEach((id, f) -> complete(scope.apply(id), f, share(resolved.get(id))));
+        }
+        MultiGetResult<V> result = new MultiGetResult<>();
+        for (String id : new LinkedHashSet<>(ids)) {
+            V v = resolved.get(id);
+            if (v != null) result.getFound().put(id, v); else result.getMissing().add(id);
+        }
+        return result;
+    }
+
+    public void invalidate(String id) {
+        String key = scope.apply(id);
+        inFlight.remove(key);
+        recent.remove(key);
+    }
+
+    public long getLoads() { return loads.sum(); }
+    public long getCollapsed() { return collapsed.sum(); }
+    public long getWindowHits() { return windowHits.sum(); }
+
+    private Entry<V> peek(String key) {
+        if (windowNanos <= 0) return null;
+        Entry<V> e = recent.get(key);
+        if (e == null) return null;
+        if (e.expiresAt - System.nanoTime() > 0) return e;
+        recent.remove(key, e);
+        return null;
+    }
+
+    /**
+     * Keeps the value only while our marker is still in flight. Both happen inside one
+     * {@code compute} on the marker, and {@link #invalidate} removes the marker before the kept
+     * value, so an invalidation either stops the store or removes what was stored.
+     */
+    private void complete(String key, CompletableFuture<V> mine, V value) {
+        inFlight.computeIfPresent(key, (k, f) -> {
+            if (f != mine) return f;
+            put(key, value);
+            return null;
+        });
+        mine.complete(value);
+    }
+
+    private V share(V value) {
+        return value == null ? null : copy.apply(value);
+    }
+
+    private void put(String key, V value) {
+        if (windowNanos <= 0) return;
+        if (recent.size() >= maxEntries) {
+            long now = System.nanoTime();
+            recent.values().removeIf(e -> e.expiresAt - now <= 0);
+            if (recent.size() >= maxEntries) return;
+        }
+        recent.put(key, new Entry<>(value, System.nanoTime() + windowNanos));
+    }
+
+    private static <V> V await(CompletableFuture<V> f) {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
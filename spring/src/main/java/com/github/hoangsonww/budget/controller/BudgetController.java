@@ -1,9 +1,13 @@
 package com.github.hoangsonww.budget.controller;
 
+import com.github.hoangsonww.budget.cache.MultiGetResult;
 import com.github.hoangsonww.budget.model.Budget;
 import com.github.hoangsonww.budget.service.BudgetService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/budgets")
@@ -15,15 +19,26 @@ public class BudgetController {
     public List<Budget> all() { return service.findAll(); }
 
     @GetMapping("/{id}")
-    public Budget one(@PathVariable String id) { return service.findById(id); }
+    public ResponseEntity<Budget> one(@PathVariable String id) { return ETags.tagged(service.findById(id), Budget::getVersion); }
+
+    @PostMapping("/_mget")
+    public MultiGetResult<Budget> mget(@RequestBody List<String> ids) { return service.findAllById(ids); }
 
     @PostMapping
     public Budget create(@RequestBody Budget b) { return service.save(b); }
 
     @PutMapping("/{id}")
-    public Budget update(@PathVariable String id, @RequestBody Budget b) {
-        b.setId(id);
-        return service.save(b);
+    public ResponseEntity<Budget> update(@PathVariable String id,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                         @RequestBody Budget b) {
+        return ETags.tagged(service.update(id, ETags.version(ifMatch), b), Budget::getVersion);
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<Budget> patch(@PathVariable String id,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                        @RequestBody Map<String, Object> changes) {
+        return ETags.tagged(service.patch(id, ETags.version(ifMatch), changes), Budget::getVersion);
     }
 
     @DeleteMapping("/{id}")
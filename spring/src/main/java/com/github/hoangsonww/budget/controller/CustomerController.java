@@ -1,9 +1,13 @@
 package com.github.hoangsonww.budget.controller;
 
+import com.github.hoangsonww.budget.cache.MultiGetResult;
 import com.github.hoangsonww.budget.model.Customer;
 import com.github.hoangsonww.budget.service.CustomerService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/customers")
@@ -15,15 +19,26 @@ public class CustomerController {
     public List<Customer> all() { return service.findAll(); }
 
     @GetMapping("/{id}")
-    public Customer one(@PathVariable String id) { return service.findById(id); }
+    public ResponseEntity<Customer> one(@PathVariable String id) { return ETags.tagged(service.findById(id), Customer::getVersion); }
+
+    @PostMapping("/_mget")
+    public MultiGetResult<Customer> mget(@RequestBody List<String> ids) { return service.findAllById(ids); }
 
     @PostMapping
     public Customer create(@RequestBody Customer c) { return service.save(c); }
 
     @PutMapping("/{id}")
-    public Customer update(@PathVariable String id, @RequestBody Customer c) {
-        c.setId(id);
-        return service.save(c);
+    public ResponseEntity<Customer> update(@PathVariable String id,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @RequestBody Customer c) {
+        return ETags.tagged(service.update(id, ETags.version(ifMatch), c), Customer::getVersion);
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<Customer> patch(@PathVariable String id,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                          @RequestBody Map<String, Object> changes) {
+        return ETags.tagged(service.patch(id, ETags.version(ifMatch), changes), Customer::getVersion);
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,27 @@
+package com.github.hoangsonww.budget.controller;
+
+import org.springframework.http.ResponseEntity;
+import java.util.function.Function;
+
+/** Entity versions as strong ETags: {@code "3"} on responses, parsed back from {@code If-Match}. */
+final class ETags {
+    private ETags() {}
+
+    /** Version named by an {@code If-Match} header; null when absent or {@code *}. */
+    static Long version(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return null;
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) tag = tag.substring(2);
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) tag = tag.substring(1, tag.length() - 1);
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match must be a single entity version, got " + ifMatch);
+        }
+    }
+
+    static <T> ResponseEntity<T> tagged(T body, Function<T, Long> versionOf) {
+        Long v = body == null ? null : versionOf.apply(body);
+        return v == null ? ResponseEntity.ok(body) : ResponseEntity.ok().eTag(Long.toString(v)).body(body);
+    }
+}
@@ -1,9 +1,13 @@
 package com.github.hoangsonww.budget.controller;
 
+import com.github.hoangsonww.budget.cache.MultiGetResult;
 import com.github.hoangsonww.budget.model.Order;
 import com.github.hoangsonww.budget.service.OrderService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -15,15 +19,26 @@ public class OrderController {
     public List<Order> all() { return service.findAll(); }
 
     @GetMapping("/{id}")
-    public Order one(@PathVariable String id) { return service.findById(id); }
+    public ResponseEntity<Order> one(@PathVariable String id) { return ETags.tagged(service.findById(id), Order::getVersion); }
+
+    @PostMapping("/_mget")
+    public MultiGetResult<Order> mget(@RequestBody List<String> ids) { return service.findAllById(ids); }
 
     @PostMapping
     public Order create(@RequestBody Order o) { return service.save(o); }
 
     @PutMapping("/{id}")
-    public Order update(@PathVariable String id, @RequestBody Order o) {
-        o.setId(id);
-        return service.save(o);
+    public ResponseEntity<Order> update(@PathVariable String id,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                        @RequestBody Order o) {
+        return ETags.tagged(service.update(id, ETags.version(ifMatch), o), Order::getVersion);
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<Order> patch(@PathVariable String id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                       @RequestBody Map<String, Object> changes) {
+        return ETags.tagged(service.patch(id, ETags.version(ifMatch), changes), Order::getVersion);
     }
 
     @DeleteMapping("/{id}")
@@ -1,9 +1,15 @@
 package com.github.hoangsonww.budget.controller;
 
+import com.github.hoangsonww.budget.cache.MultiGetResult;
 import com.github.hoangsonww.budget.model.Transaction;
 import com.github.hoangsonww.budget.service.TransactionService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -12,18 +18,32 @@ public class TransactionController {
     public TransactionController(TransactionService service) { this.service = service; }
 
     @GetMapping
-    public List<Transaction> all() { return service.findAll(); }
+    public List<Transaction> all(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to) {
+        return from == null && to == null ? service.findAll() : service.findByPeriod(from, to);
+    }
 
     @GetMapping("/{id}")
-    public Transaction one(@PathVariable String id) { return service.findById(id); }
+    public ResponseEntity<Transaction> one(@PathVariable String id) { return ETags.tagged(service.findById(id), Transaction::getVersion); }
+
+    @PostMapping("/_mget")
+    public MultiGetResult<Transaction> mget(@RequestBody List<String> ids) { return service.findAllById(ids); }
 
     @PostMapping
     public Transaction create(@RequestBody Transaction t) { return service.save(t); }
 
     @PutMapping("/{id}")
-    public Transaction update(@PathVariable String id, @RequestBody Transaction t) {
-        t.setId(id);
-        return service.save(t);
+    public ResponseEntity<Transaction> update(@PathVariable String id,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                              @RequestBody Transaction t) {
+        return ETags.tagged(service.update(id, ETags.version(ifMatch), t), Transaction::getVersion);
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<Transaction> patch(@PathVariable String id,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             @RequestBody Map<String, Object> changes) {
+        return ETags.tagged(service.patch(id, ETags.version(ifMatch), changes), Transaction::getVersion);
     }
 
     @DeleteMapping("/{id}")
@@ -1,9 +1,14 @@
 package com.github.hoangsonww.budget.controller;
 
+import com.github.hoangsonww.budget.cache.MultiGetResult;
 import com.github.hoangsonww.budget.model.User;
 import com.github.hoangsonww.budget.service.UserService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/users")
@@ -15,15 +20,32 @@ public class UserController {
     public List<User> all() { return service.findAll(); }
 
     @GetMapping("/{id}")
-    public User one(@PathVariable String id) { return service.findById(id); }
+    public ResponseEntity<User> one(@PathVariable String id) { return ETags.tagged(service.findById(id), User::getVersion); }
+
+    @PostMapping("/_mget")
+    public MultiGetResult<User> mget(@RequestBody List<String> ids) { return service.findAllById(ids); }
+
+    @PostMapping("/login")
+    public ResponseEntity<User> login(@RequestBody User credentials) {
+        User u = service.authenticate(credentials.getUsername(), credentials.getPassword());
+        return u == null ? ResponseEntity.status(HttpStatus.UNAUTHORIZED).build() : ResponseEntity.ok(u);
+    }
 
     @PostMapping
     public User create(@RequestBody User u) { return service.save(u); }
 
     @PutMapping("/{id}")
-    public User update(@PathVariable String id, @RequestBody User u) {
-        u.setId(id);
-        return service.save(u);
+    public ResponseEntity<User> update(@PathVariable String id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                       @RequestBody User u) {
+        return ETags.tagged(service.update(id, ETags.version(ifMatch), u), User::getVersion);
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<User> patch(@PathVariable String id,
+                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                      @RequestBody Map<String, Object> changes) {
+        return ETags.tagged(service.patch(id, ETags.version(ifMatch), changes), User::getVersion);
     }
 
     @DeleteMapping("/{id}")
@@ -1,18 +1,29 @@
 package com.github.hoangsonww.budget.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
-import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import javax.persistence.*;
 import java.util.Date;
 
 @Data @NoArgsConstructor @AllArgsConstructor @Builder
 @Entity
-@Document(collection="orders")
-public class Order {
+@Document(collection = "#{@tenancy.collection('orders')}")
+@CompoundIndexes({
+        @CompoundIndex(name = "tenant_createdAt", def = "{'tenantId': 1, 'createdAt': 1}"),
+        @CompoundIndex(name = "tenant_customerId", def = "{'tenantId': 1, 'customerId': 1}")
+})
+public class Order implements TenantScoped {
     @Id
     @org.springframework.data.annotation.Id
     private String id;
+    @Version
+    @org.springframework.data.annotation.Version
+    private Long version;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String tenantId;
     private String customerId;
     private Double amount;
     private String status;
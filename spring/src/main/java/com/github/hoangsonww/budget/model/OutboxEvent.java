@@ -0,0 +1,25 @@
+package com.github.hoangsonww.budget.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.util.Date;
+
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+@Document(collection="outbox_events")
+@CompoundIndex(name="unpublished_idx", def="{'publishedAt': 1, 'createdAt': 1, '_id': 1}")
+public class OutboxEvent {
+    @Id
+    private String id;
+    /** Tenant that made the change, null in system scope; Deleted events have no payload to show it. */
+    private String tenantId;
+    private String aggregateType;
+    private String aggregateId;
+    private String eventType;
+    private String payload;
+    private Date createdAt;
+    private Date publishedAt;
+    /** Publish attempts the broker rejected; the relay dead-letters the event at outbox.relay.max-attempts. */
+    private int attempts;
+}
@@ -1,18 +1,28 @@
 package com.github.hoangsonww.budget.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
-import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import javax.persistence.*;
 import java.util.Date;
 
 @Data @NoArgsConstructor @AllArgsConstructor @Builder
 @Entity
-@Document(collection="tasks")
-public class Task {
+@Document(collection = "#{@tenancy.collection('tasks')}")
+@CompoundIndexes({
+        @CompoundIndex(name = "tenant_status", def = "{'tenantId': 1, 'status': 1}")
+})
+public class Task implements TenantScoped {
     @Id
     @org.springframework.data.annotation.Id
     private String id;
+    @Version
+    @org.springframework.data.annotation.Version
+    private Long version;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String tenantId;
     private String description;
     private String status;
     private Date createdAt;
@@ -0,0 +1,14 @@
+package com.github.hoangsonww.budget.outbox;
+
+import com.github.hoangsonww.budget.model.OutboxEvent;
+import java.util.List;
+import java.util.Set;
+
+/** Broker client used by {@link OutboxRelay}; swap implementations with {@code outbox.broker}. */
+public interface EventPublisher {
+    /**
+     * Sends a batch in order and blocks until the broker has answered for every event.
+     * Returns the ids of the events the broker acknowledged.
+     */
+    Set<String> publish(List<OutboxEvent> batch);
+}
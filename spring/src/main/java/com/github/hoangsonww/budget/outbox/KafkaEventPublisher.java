@@ -0,0 +1,86 @@
+package com.github.hoangsonww.budget.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.hoangsonww.budget.model.OutboxEvent;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Publishes to {@code <aggregate>-events} topics (e.g. {@code budget-events}) using the same
+ * envelope as {@code apache-kafka/kafkaService.js}. The aggregate id is the record key, so all
+ * events of one aggregate land on one partition in order.
+ */
+public class KafkaEventPublisher implements EventPublisher, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(KafkaEventPublisher.class);
+    private final KafkaProducer<String, String> producer;
+    private final ObjectMapper mapper;
+
+    public KafkaEventPublisher(String bootstrapServers, String clientId, ObjectMapper mapper) {
+        Properties p = new Properties();
+        p.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        p.put(ProducerConfig.CLIENT_ID_CONFIG, clientId);
+        p.put(ProducerConfig.ACKS_CONFIG, "all");
+        p.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        p.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        p.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        p.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        this.producer = new KafkaProducer<>(p);
+        this.mapper = mapper;
+    }
+
+    @Override
+    public Set<String> publish(List<OutboxEvent> batch) {
+        List<Future<?>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent e : batch) {
+            String topic = e.getAggregateType().toLowerCase(Locale.ROOT) + "-events";
+            sends.add(producer.send(new ProducerRecord<>(topic, e.getAggregateId(), envelope(e))));
+        }
+        producer.flush();
+        Set<String> acked = new HashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                sends.get(i).get();
+                acked.add(batch.get(i).getId());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException ex) {
+                log.warn("Kafka publish failed for outbox event {}", batch.get(i).getId(), ex.getCause());
+            }
+        }
+        return acked;
+    }
+
+    private String envelope(OutboxEvent e) {
+        ObjectNode node = mapper.createObjectNode();
+        node.put("eventId", e.getId());
+        node.put("eventType", e.getEventType());
+        node.put("emittedAt", e.getCreatedAt().toInstant().toString());
+        node.put("source", "budget-backend");
+        node.put("tenantId", e.getTenantId());
+        node.put("aggregateId", e.getAggregateId());
+        try {
+            node.set("payload", e.getPayload() == null ? null : mapper.readTree(e.getPayload()));
+        } catch (IOException ex) {
+            node.put("payload", e.getPayload());
+        }
+        return node.toString();
+    }
+
+    @Override
+    public void close() { producer.close(); }
+}
@@ -0,0 +1,55 @@
+package com.github.hoangsonww.budget.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.hoangsonww.budget.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@EnableScheduling
+public class OutboxConfig {
+
+    @Bean
+    public OutboxRecorder outboxRecorder(OutboxEventRepository repo, ObjectMapper mapper, MongoDatabaseFactory factory,
+                                         @Value("${outbox.transactional:true}") boolean transactional) {
+        // Built here rather than as a PlatformTransactionManager bean so it never competes with the JPA one.
+        TransactionOperations tx = transactional
+                ? new TransactionTemplate(new MongoTransactionManager(factory))
+                : TransactionOperations.withoutTransaction();
+        return new OutboxRecorder(repo, mapper, tx);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "outbox.broker", havingValue = "kafka")
+    public KafkaEventPublisher kafkaEventPublisher(@Value("${outbox.kafka.bootstrap-servers}") String servers,
+                                                   @Value("${outbox.kafka.client-id:budget-backend}") String clientId,
+                                                   ObjectMapper mapper) {
+        return new KafkaEventPublisher(servers, clientId, mapper);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(EventPublisher.class)
+    public InMemoryEventPublisher inMemoryEventPublisher(@Value("${outbox.memory.capacity:10000}") int capacity) {
+        return new InMemoryEventPublisher(capacity);
+    }
+
+    @Bean
+    @Lazy(false)
+    @ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+    public OutboxRelay outboxRelay(OutboxEventRepository repo, MongoOperations mongo, EventPublisher publisher,
+                                   @Value("${outbox.relay.batch-size:200}") int batchSize,
+                                   @Value("${outbox.relay.max-attempts:10}") int maxAttempts,
+                                   @Value("${outbox.relay.retention-hours:24}") long retentionHours) {
+        return new OutboxRelay(repo, mongo, publisher, batchSize, maxAttempts, retentionHours);
+    }
+}
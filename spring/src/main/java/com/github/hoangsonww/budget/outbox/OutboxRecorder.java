@@ -0,0 +1,62 @@
+package com.github.hoangsonww.budget.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.hoangsonww.budget.model.OutboxEvent;
+import com.github.hoangsonww.budget.repository.OutboxEventRepository;
+import org.springframework.transaction.support.TransactionOperations;
+import com.github.hoangsonww.budget.tenant.TenantContext;
+import java.util.Date;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Records a domain event next to each service write, stamped with the writing tenant. With
+ * {@code outbox.transactional=true} (the default; Mongo replica set required) the write and the
+ * event commit atomically. Otherwise the event is inserted right after the write succeeds, which
+ * is best effort only: a crash in between loses the event.
+ */
+public class OutboxRecorder {
+    private final OutboxEventRepository repo;
+    private final ObjectMapper mapper;
+    private final TransactionOperations tx;
+
+    public OutboxRecorder(OutboxEventRepository repo, ObjectMapper mapper, TransactionOperations tx) {
+        this.repo = repo;
+        this.mapper = mapper;
+        this.tx = tx;
+    }
+
+    public <T> T saved(String aggregateType, Supplier<T> write, Function<T, String> idOf) {
+        return tx.execute(status -> {
+            T entity = write.get();
+            record(aggregateType, idOf.apply(entity), aggregateType + "Saved", entity);
+            return entity;
+        });
+    }
+
+    /** Records the event only if {@code delete} reports that it removed the document. */
+    public boolean deleted(String aggregateType, String id, BooleanSupplier delete) {
+        return Boolean.TRUE.equals(tx.execute(status -> {
+            if (!delete.getAsBoolean()) return false;
+            record(aggregateType, id, aggregateType + "Deleted", null);
+            return true;
+        }));
+    }
+
+    private void record(String aggregateType, String aggregateId, String eventType, Object payload) {
+        try {
+            repo.save(OutboxEvent.builder()
+                    .tenantId(TenantContext.current())
+                    .aggregateType(aggregateType)
+                    .aggregateId(aggregateId)
+                    .eventType(eventType)
+                    .payload(payload == null ? null : mapper.writeValueAsString(payload))
+                    .createdAt(new Date())
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + eventType + " payload", e);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.github.hoangsonww.budget.profiling;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Continuous, rate-limited view of allocation sites and lock contention in the application's own
+ * packages. A JFR event stream delivers throttled {@code jdk.ObjectAllocationSample} events and
+ * monitor-enter events above a threshold; each is attributed to its first application frame and
+ * summed per site over a rolling two-window span. {@code jdk.ThreadPark} is left to on-demand
+ * recordings: JFR cannot filter it by thread, so idle pool workers waiting for tasks would be
+ * recorded, stack walk included, only to be dropped here for having no application frame.
+ */
+public class HotPathSampler implements AutoCloseable {
+    private static final String ALLOCATION = "jdk.ObjectAllocationSample";
+    private static final String MONITOR = "jdk.JavaMonitorEnter";
+    private static final int RECENT_CONTENTION = 2048;
+
+    private final String[] packages;
+    private final int maxSites;
+    private final long windowNanos;
+    private final RecordingStream stream;
+    private final ArrayDeque<Contention> recent = new ArrayDeque<>();
+    private volatile Window current = new Window(System.nanoTime());
+    private volatile Window previous = new Window(System.nanoTime());
+
+    public HotPathSampler(ProfilingProperties.Sampling cfg, List<String> packages) {
+        this.packages = packages.toArray(new String[0]);
+        this.maxSites = cfg.getMaxSites();
+        this.windowNanos = TimeUnit.SECONDS.toNanos(cfg.getWindowSeconds());
+        if (!cfg.isEnabled() || !FlightRecorder.isAvailable()) {
+            this.stream = null;
+            return;
+        }
+        Duration threshold = Duration.ofMillis(cfg.getLockThresholdMillis());
+        stream = new RecordingStream();
+        stream.enable(ALLOCATION).with("throttle", cfg.getAllocationThrottle()).withStackTrace();
+        stream.enable(MONITOR).withThreshold(threshold).withStackTrace();
+        stream.onEvent(ALLOCATION, this::onAllocation);
+        stream.onEvent(MONITOR, e -> onContention(e, e.getClass("monitorClass") == null ? null : e.getClass("monitorClass").getName()));
+        stream.startAsync();
+    }
+
+    public boolean isActive() {
+        return stream != null;
+    }
+
+    public List<HotSite> topAllocations(int limit) {
+        return top(w -> w.allocations, limit);
+    }
+
+    public List<HotSite> topLocks(int limit) {
+        return top(w -> w.locks, limit);
+    }
+
+    /** Contention events seen on {@code threadId} between {@code from} and {@code to}. */
+    public List<Contention> contentionDuring(long threadId, Instant from, Instant to) {
+        List<Contention> out = new ArrayList<>();
+        synchronized (recent) {
+            for (Contention c : recent) {
+                if (c.getThreadId() == threadId && !c.getEnd().isBefore(from) && !c.getStart().isAfter(to)) out.add(c);
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public void close() {
+        if (stream != null) stream.close();
+    }
+
+    private void onAllocation(RecordedEvent e) {
+        String site = site(e.getStackTrace());
+        if (site == null) return;
+        String type = e.getClass("objectClass") == null ? "?" : e.getClass("objectClass").getName();
+        add(window().allocations, site + " -> " + type, e.getLong("weight"));
+    }
+
+    private void onContention(RecordedEvent e, String on) {
+        String site = site(e.getStackTrace());
+        if (site == null) return;
+        String key = site + " on " + (on == null ? "?" : on);
+        add(window().locks, key, e.getDuration().toNanos());
+        RecordedThread t = e.getThread();
+        if (t == null) return;
+        Contention c = new Contention(t.getJavaThreadId(), key, e.getStartTime(), e.getEndTime());
+        synchronized (recent) {
+            if (recent.size() == RECENT_CONTENTION) recent.removeFirst();
+            recent.addLast(c);
+        }
+    }
+
+    private String site(RecordedStackTrace trace) {
+        if (trace == null) return null;
+        for (RecordedFrame f : trace.getFrames()) {
+            if (!f.isJavaFrame()) continue;
+            String type = f.getMethod().getType().getName();
+            for (String p : packages) {
+                if (type.startsWith(p)) {
+                    return type.substring(type.lastIndexOf('.') + 1) + "." + f.getMethod().getName() + ":" + f.getLineNumber();
+                }
+            }
+        }
+        return null;
+    }
+
+    private void add(Map<String, LongAdder[]> sites, String key, long weight) {
+        LongAdder[] c = sites.get(key);
+        if (c == null) {
+            if (sites.size() >= maxSites) key = "(other)";
+            c = sites.computeIfAbsent(key, k -> new LongAdder[]{new LongAdder(), new LongAdder()});
+        }
+        c[0].increment();
+        c[1].add(weight);
+    }
+
+    /** Events arrive on the single stream thread, so rotation needs no locking. */
+    private Window window() {
+        Window w = current;
+        long now = System.nanoTime();
+        if (now - w.startedAt < windowNanos) return w;
+        previous = w;
+        return current = new Window(now);
+    }
+
+    private List<HotSite> top(Function<Window, Map<String, LongAdder[]>> view, int limit) {
+        Map<String, HotSite> merged = new HashMap<>();
+        for (Window w : new Window[]{previous, current}) {
+            view.apply(w).forEach((k, c) -> {
+                HotSite s = merged.computeIfAbsent(k, x -> new HotSite(x, 0, 0));
+                s.setSamples(s.getSamples() + c[0].sum());
+                s.setWeight(s.getWeight() + c[1].sum());
+            });
+        }
+        List<HotSite> rows = new ArrayList<>(merged.values());
+        rows.sort(Comparator.comparingLong(HotSite::getWeight).reversed());
+        return rows.size() > limit ? new ArrayList<>(rows.subList(0, limit)) : rows;
+    }
+
+    private static final class Window {
+        final long startedAt;
+        final Map<String, LongAdder[]> allocations = new ConcurrentHashMap<>();
+        final Map<String, LongAdder[]> locks = new ConcurrentHashMap<>();
+
+        Window(long startedAt) {
+            this.startedAt = startedAt;
+        }
+    }
+
+    @Data @AllArgsConstructor
+    public static class Contention {
+        private long threadId;
+        private String site;
+        private Instant start;
+        private Instant end;
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.hoangsonww.budget.profiling;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/profiling}: GET for the sampled allocation/lock views, slow requests and
+ * recordings; POST {@code {"durationSeconds": 60, "settings": "profile"}} to start a JFR
+ * recording; GET {@code /{id}} to download it and DELETE {@code /{id}} to stop it early.
+ */
+@WebEndpoint(id = "profiling")
+public class ProfilingEndpoint {
+    private final HotPathSampler sampler;
+    private final SlowRequestFilter slowRequests;
+    private final JfrRecordings recordings;
+
+    public ProfilingEndpoint(HotPathSampler sampler, SlowRequestFilter slowRequests, JfrRecordings recordings) {
+        this.sampler = sampler;
+        this.slowRequests = slowRequests;
+        this.recordings = recordings;
+    }
+
+    @ReadOperation
+    public Map<String, Object> summary(@Nullable Integer top) {
+        int limit = top == null || top <= 0 ? 20 : top;
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("sampling", sampler.isActive());
+        m.put("allocations", sampler.topAllocations(limit));
+        m.put("locks", sampler.topLocks(limit));
+        m.put("slowRequests", slowTraces());
+        m.put("recordings", recordings.list());
+        return m;
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> start(@Nullable Long durationSeconds, @Nullable String settings) {
+        try {
+            Map<String, Object> started = recordings.start(durationSeconds, settings);
+            return started == null
+                    ? new WebEndpointResponse<>(Map.of("error", "a recording is already running"), 409)
+                    : new WebEndpointResponse<>(started, WebEndpointResponse.STATUS_OK);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return new WebEndpointResponse<>(Map.of("error", e.getMessage()), WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> recording(@Selector long id) {
+        Resource file = recordings.download(id);
+        return file == null
+                ? new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND)
+                : new WebEndpointResponse<>(file, WebEndpointResponse.STATUS_OK);
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Void> stop(@Selector long id) {
+        return new WebEndpointResponse<>(recordings.stop(id) ? WebEndpointResponse.STATUS_NO_CONTENT : WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+
+    private List<SlowTrace> slowTraces() {
+        List<SlowTrace> out = new ArrayList<>();
+        for (SlowTrace t : slowRequests.recent()) {
+            out.add(new SlowTrace(t.getMethod(), t.getPath(), t.getStatus(), t.getMillis(), t.getThread(), t.getThreadId(),
+                    t.getStartedAt(), t.getEndedAt(), sampler.contentionDuring(t.getThreadId(), t.getStartedAt(), t.getEndedAt())));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.hoangsonww.budget.profiling;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "profiling")
+public class ProfilingProperties {
+    private boolean enabled = true;
+    /** Samples are attributed to the first stack frame in one of these packages; others are dropped. */
+    private List<String> packages = new ArrayList<>(List.of(
+            "com.github.hoangsonww.budget.controller",
+            "com.github.hoangsonww.budget.service",
+            "com.github.hoangsonww.budget.repository"));
+    private Sampling sampling = new Sampling();
+    private SlowRequests slowRequests = new SlowRequests();
+    private Jfr jfr = new Jfr();
+
+    @Data
+    public static class Sampling {
+        private boolean enabled = true;
+        /** Rate cap for jdk.ObjectAllocationSample, e.g. "20/s"; this is what bounds the overhead. */
+        private String allocationThrottle = "20/s";
+        /** Monitor waits and parks shorter than this are not recorded. */
+        private long lockThresholdMillis = 10;
+        /** Views cover the current and the previous window. */
+        private long windowSeconds = 300;
+        private int maxSites = 1000;
+    }
+
+    @Data
+    public static class SlowRequests {
+        private boolean enabled = true;
+        private long thresholdMillis = 500;
+        private int keep = 100;
+    }
+
+    @Data
+    public static class Jfr {
+        /** Built-in JFR settings: "default" (about 1% overhead) or "profile" (about 2%). */
+        private String settings = "profile";
+        private long maxDurationSeconds = 300;
+        /** Finished recordings kept for download; the oldest is discarded first. */
+        private int keep = 4;
+    }
+}
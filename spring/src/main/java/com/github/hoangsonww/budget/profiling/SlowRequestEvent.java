@@ -0,0 +1,27 @@
+package com.github.hoangsonww.budget.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/** Marks slow API requests on the timeline of any JFR recording taken while they ran. */
+@Name("budget.SlowRequest")
+@Label("Slow API Request")
+@Category({"Budget", "HTTP"})
+@Description("API request that exceeded profiling.slow-requests.threshold-millis")
+@StackTrace(false)
+class SlowRequestEvent extends Event {
+    @Label("Method")
+    String method;
+    @Label("Path")
+    String path;
+    @Label("Status")
+    int status;
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+}
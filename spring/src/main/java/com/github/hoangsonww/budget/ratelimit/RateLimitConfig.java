@@ -0,0 +1,32 @@
+package com.github.hoangsonww.budget.ratelimit;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    public AdaptiveLoadShedder adaptiveLoadShedder(RateLimitProperties props) {
+        RateLimitProperties.Shedding s = props.getShedding();
+        return new AdaptiveLoadShedder(s.getMinConcurrency(), s.getMaxConcurrency(), s.getTargetLatencyMillis(), s.getWindowMillis());
+    }
+
+    /** A bean of its own so the scheduler runs its idle-bucket sweep. */
+    @Bean
+    public RateLimitFilter rateLimitFilterTarget(RateLimitProperties props, AdaptiveLoadShedder shedder) {
+        return new RateLimitFilter(props, props.getShedding().isEnabled() ? shedder : null);
+    }
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimitFilter filter) {
+        FilterRegistrationBean<RateLimitFilter> reg = new FilterRegistrationBean<>(filter);
+        reg.addUrlPatterns("/api/*");
+        reg.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return reg;
+    }
+}
@@ -0,0 +1,134 @@
+package com.github.hoangsonww.budget.ratelimit;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client, per-route token buckets in front of the {@code /api/*} controllers, followed by
+ * adaptive load shedding. Rejections answer 429 (client over its budget) or 503 (server saturated).
+ * Clients are the authenticated user, else the remote address; no request header is trusted for this
+ * here. Behind a proxy, the container resolves the client address from X-Forwarded-For for trusted
+ * proxies only (server.forward-headers-strategy=native, server.tomcat.remoteip.internal-proxies).
+ * Once {@code maxBuckets} clients are tracked, further clients share one overflow bucket per rule
+ * until the periodic sweep drops idle buckets.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    private final RateLimitProperties props;
+    private final AdaptiveLoadShedder shedder;
+    private final String[] ruleMethods;
+    private final String[][] ruleSegments;
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final TokenBucket[] overflow;
+
+    public RateLimitFilter(RateLimitProperties props, AdaptiveLoadShedder shedder) {
+        this.props = props;
+        this.shedder = shedder;
+        List<RateLimitProperties.Rule> rules = props.getRules();
+        this.ruleMethods = new String[rules.size()];
+        this.ruleSegments = new String[rules.size()][];
+        for (int i = 0; i < rules.size(); i++) {
+            ruleMethods[i] = rules.get(i).getMethod();
+            String pattern = rules.get(i).getPattern();
+            ruleSegments[i] = pattern == null ? null : StringUtils.tokenizeToStringArray(pattern, "/");
+        }
+        this.overflow = new TokenBucket[rules.size() + 1];
+        for (int i = -1; i < rules.size(); i++) overflow[i + 1] = newBucket(i);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        if (!props.isEnabled()) {
+            chain.doFilter(req, res);
+            return;
+        }
+        String path = req.getRequestURI().substring(req.getContextPath().length());
+        int ruleIndex = matchRule(req.getMethod(), path);
+        long now = System.nanoTime();
+        long wait = bucketFor(ruleIndex, clientKey(req)).tryAcquire(now);
+        if (wait > 0) {
+            reject(res, HttpStatus.TOO_MANY_REQUESTS, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999L)));
+            return;
+        }
+        if (shedder == null) {
+            chain.doFilter(req, res);
+            return;
+        }
+        if (!shedder.tryAcquire()) {
+            reject(res, HttpStatus.SERVICE_UNAVAILABLE, 1);
+            return;
+        }
+        try {
+            chain.doFilter(req, res);
+        } finally {
+            shedder.release(System.nanoTime() - now);
+        }
+    }
+
+    int matchRule(String method, String path) {
+        for (int i = 0; i < ruleMethods.length; i++) {
+            if (ruleMethods[i] != null && !ruleMethods[i].equalsIgnoreCase(method)) continue;
+            if (ruleSegments[i] == null || matchSegments(ruleSegments[i], path)) return i;
+        }
+        return -1;
+    }
+
+    /** Allocation-free match of "/"-separated segments; "*" matches one segment, a trailing "**" the rest. */
+    static boolean matchSegments(String[] pattern, String path) {
+        int pos = 0;
+        int len = path.length();
+        for (String seg : pattern) {
+            while (pos < len && path.charAt(pos) == '/') pos++;
+            if ("**".equals(seg)) return true;
+            if (pos >= len) return false;
+            int end = path.indexOf('/', pos);
+            if (end < 0) end = len;
+            if (!"*".equals(seg) && !(seg.length() == end - pos && path.startsWith(seg, pos))) return false;
+            pos = end;
+        }
+        while (pos < len && path.charAt(pos) == '/') pos++;
+        return pos >= len;
+    }
+
+    String clientKey(HttpServletRequest req) {
+        if (req.getUserPrincipal() != null) return req.getUserPrincipal().getName();
+        return req.getRemoteAddr();
+    }
+
+    TokenBucket bucketFor(int ruleIndex, String client) {
+        String key = ruleIndex + "|" + client;
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) return bucket;
+        if (buckets.size() >= props.getMaxBuckets()) return overflow[ruleIndex + 1];
+        return buckets.computeIfAbsent(key, k -> newBucket(ruleIndex));
+    }
+
+    private TokenBucket newBucket(int ruleIndex) {
+        if (ruleIndex < 0) return new TokenBucket(props.getDefaultCapacity(), props.getDefaultRefillPerSecond());
+        RateLimitProperties.Rule r = props.getRules().get(ruleIndex);
+        return new TokenBucket(r.getCapacity(), r.getRefillPerSecond());
+    }
+
+    @Scheduled(fixedDelayString = "${ratelimit.sweep-interval-millis:10000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(b -> b.isIdle(now));
+    }
+
+    private void reject(HttpServletResponse res, HttpStatus status, long retryAfterSeconds) throws IOException {
+        res.setStatus(status.value());
+        res.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        res.setContentType("application/json");
+        res.getWriter().write("{\"error\":\"" + status.getReasonPhrase() + "\"}");
+    }
+}
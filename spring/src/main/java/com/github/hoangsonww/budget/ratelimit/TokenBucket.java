@@ -0,0 +1,41 @@
+package com.github.hoangsonww.budget.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket implemented as a generic cell rate algorithm: the whole
+ * bucket state is a single "theoretical arrival time" updated with CAS, so an
+ * acquire is a clock read plus one compare-and-set in the uncontended case.
+ */
+public class TokenBucket {
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucket(long capacity, double refillPerSecond) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("capacity and refillPerSecond must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1L, (long) (1_000_000_000L / refillPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+    }
+
+    /** Returns 0 when a token was taken, otherwise the nanos to wait before one is available. */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long base = (tat == Long.MIN_VALUE || tat < nowNanos) ? nowNanos : tat;
+            long wait = base - burstToleranceNanos - nowNanos;
+            if (wait > 0) return wait;
+            if (theoreticalArrival.compareAndSet(tat, base + emissionIntervalNanos)) return 0L;
+        }
+    }
+
+    public boolean tryAcquire() { return tryAcquire(System.nanoTime()) == 0L; }
+
+    /** A bucket is idle once it has fully refilled; idle buckets can be evicted without changing behaviour. */
+    public boolean isIdle(long nowNanos) {
+        long tat = theoreticalArrival.get();
+        return tat == Long.MIN_VALUE || tat <= nowNanos;
+    }
+}
@@ -0,0 +1,260 @@
+package com.github.hoangsonww.budget.report;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Sharded group-by/top-K. The sources (for example one range query per slice of the period) are
+ * read in parallel on a reader pool, and their rows are hash-partitioned by key into chunks. Each
+ * partition is aggregated serially, but partitions run in parallel on a fork/join pool. Since
+ * partitions hold disjoint keys, the exact top K is the merge of the per-partition top K heaps.
+ * Readers block on I/O, so they get their own threads rather than fork/join workers.
+ */
+public class ReportEngine implements AutoCloseable {
+    public static final Comparator<ReportRow> BY_TOTAL = Comparator.comparingDouble(ReportRow::getTotal);
+    public static final Comparator<ReportRow> BY_COUNT = Comparator.comparingLong(ReportRow::getCount);
+
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final ForkJoinPool pool;
+    private final ExecutorService readers;
+    private final int readerCount;
+    private final int partitions;
+    private final int chunkSize;
+    private final int maxChunksInFlight;
+
+    public ReportEngine(int parallelism, int partitions, int chunkSize, int maxChunksInFlight) {
+        this(parallelism, parallelism, partitions, chunkSize, maxChunksInFlight);
+    }
+
+    public ReportEngine(int parallelism, int readers, int partitions, int chunkSize, int maxChunksInFlight) {
+        this.pool = new ForkJoinPool(parallelism);
+        AtomicInteger n = new AtomicInteger();
+        this.readers = Executors.newFixedThreadPool(readers, r -> {
+            Thread t = new Thread(r, "report-reader-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.readerCount = readers;
+        this.partitions = partitions;
+        this.chunkSize = chunkSize;
+        this.maxChunksInFlight = maxChunksInFlight;
+    }
+
+    /** Number of sources read at once; callers split their input into about this many. */
+    public int getReaders() { return readerCount; }
+
+    public <T> List<ReportRow> topK(Iterator<T> source, Function<T, String> keyOf, ToDoubleFunction<T> valueOf,
+                                    Comparator<ReportRow> order, int k, ReportTicket ticket) {
+        return topK(List.of(() -> source), keyOf, valueOf, order, k, ticket);
+    }
+
+    /** Sources that return an {@link AutoCloseable} iterator are closed once read. */
+    public <T> List<ReportRow> topK(List<? extends Supplier<? extends Iterator<T>>> sources, Function<T, String> keyOf,
+                                    ToDoubleFunction<T> valueOf, Comparator<ReportRow> order, int k, ReportTicket ticket) {
+        Partition[] parts = new Partition[partitions];
+        CompletableFuture<?>[] tails = new CompletableFuture<?>[partitions];
+        for (int p = 0; p < partitions; p++) {
+            parts[p] = new Partition();
+            tails[p] = CompletableFuture.completedFuture(null);
+        }
+        Semaphore inFlight = new Semaphore(maxChunksInFlight);
+        boolean completed = false;
+        try {
+            List<Future<?>> reads = new ArrayList<>(sources.size());
+            for (Supplier<? extends Iterator<T>> source : sources) {
+                reads.add(readers.submit(() -> {
+                    read(source, keyOf, valueOf, parts, tails, inFlight, ticket);
+                    return null;
+                }));
+            }
+            for (Future<?> read : reads) await(read, ticket);
+            CompletableFuture<?>[] pending;
+            synchronized (tails) {
+                pending = tails.clone();
+            }
+            await(CompletableFuture.allOf(pending), ticket);
+            ticket.check();
+            PriorityQueue<ReportRow> top = pool.invoke(new MergeTopK(parts, 0, partitions, k, order, ticket));
+            List<ReportRow> result = new ArrayList<>(top);
+            result.sort(order.reversed());
+            completed = true;
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("report " + ticket.getToken() + " interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            // Stops the other readers and lets queued chunks drain without work if we bailed out early.
+            if (!completed) ticket.cancel();
+        }
+    }
+
+    private <T> void read(Supplier<? extends Iterator<T>> source, Function<T, String> keyOf, ToDoubleFunction<T> valueOf,
+                          Partition[] parts, CompletableFuture<?>[] tails, Semaphore inFlight, ReportTicket ticket)
+            throws Exception {
+        Chunk[] open = new Chunk[partitions];
+        for (int p = 0; p < partitions; p++) open[p] = new Chunk(chunkSize);
+        Iterator<T> it = source.get();
+        try {
+            int seen = 0;
+            while (it.hasNext()) {
+                if ((++seen & 1023) == 0) ticket.check();
+                T row = it.next();
+                String key = keyOf.apply(row);
+                if (key == null) continue;
+                int p = partitionOf(key);
+                if (open[p].add(key, valueOf.applyAsDouble(row))) {
+                    submit(p, tails, parts[p], open[p], inFlight, ticket);
+                    open[p] = new Chunk(chunkSize);
+                }
+            }
+            for (int p = 0; p < partitions; p++) {
+                if (open[p].size > 0) submit(p, tails, parts[p], open[p], inFlight, ticket);
+            }
+        } finally {
+            if (it instanceof AutoCloseable) ((AutoCloseable) it).close();
+        }
+    }
+
+    /** Waits for {@code f} until the deadline, noticing a cancellation within {@link #POLL_NANOS}. */
+    private static void await(Future<?> f, ReportTicket ticket) throws InterruptedException, ExecutionException {
+        while (true) {
+            ticket.check();
+            try {
+                f.get(Math.max(0, Math.min(POLL_NANOS, ticket.remainingNanos())), TimeUnit.NANOSECONDS);
+                return;
+            } catch (TimeoutException e) {
+                // check again
+            }
+        }
+    }
+
+    private int partitionOf(String key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return (h & 0x7fffffff) % partitions;
+    }
+
+    /** Chains the chunk behind the partition's previous one, so each partition is only touched by one task at a time. */
+    private void submit(int p, CompletableFuture<?>[] tails, Partition part, Chunk chunk,
+                        Semaphore inFlight, ReportTicket ticket) throws InterruptedException {
+        if (!inFlight.tryAcquire(Math.max(0, ticket.remainingNanos()), TimeUnit.NANOSECONDS)) {
+            ticket.check();
+            throw new CancellationException("report " + ticket.getToken() + " timed out");
+        }
+        synchronized (tails) {
+            tails[p] = tails[p].thenRunAsync(() -> {
+                try {
+                    if (!ticket.isCancelled()) part.add(chunk);
+                } finally {
+                    inFlight.release();
+                }
+            }, pool);
+        }
+    }
+
+    @Override
+    public void close() {
+        readers.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    private static final class Chunk {
+        final String[] keys;
+        final double[] values;
+        int size;
+
+        Chunk(int capacity) {
+            keys = new String[capacity];
+            values = new double[capacity];
+        }
+
+        /** Returns true once the chunk is full. */
+        boolean add(String key, double value) {
+            keys[size] = key;
+            values[size] = value;
+            return ++size == keys.length;
+        }
+    }
+
+    /** Per-partition accumulator; only ever touched by one task at a time (chained futures). */
+    private static final class Partition {
+        final Map<String, ReportRow> rows = new HashMap<>();
+
+        void add(Chunk chunk) {
+            for (int i = 0; i < chunk.size; i++) {
+                ReportRow r = rows.computeIfAbsent(chunk.keys[i], key -> new ReportRow(key, 0, 0));
+                r.setCount(r.getCount() + 1);
+                r.setTotal(r.getTotal() + chunk.values[i]);
+            }
+        }
+    }
+
+    private static final class MergeTopK extends RecursiveTask<PriorityQueue<ReportRow>> {
+        private static final long serialVersionUID = 1L;
+        private final Partition[] parts;
+        private final int from;
+        private final int to;
+        private final int k;
+        private final Comparator<ReportRow> order;
+        private final ReportTicket ticket;
+
+        MergeTopK(Partition[] parts, int from, int to, int k, Comparator<ReportRow> order, ReportTicket ticket) {
+            this.parts = parts;
+            this.from = from;
+            this.to = to;
+            this.k = k;
+            this.order = order;
+            this.ticket = ticket;
+        }
+
+        @Override
+        protected PriorityQueue<ReportRow> compute() {
+            ticket.check();
+            if (to - from == 1) {
+                PriorityQueue<ReportRow> heap = new PriorityQueue<>(k + 1, order);
+                for (ReportRow r : parts[from].rows.values()) offer(heap, r);
+                return heap;
+            }
+            int mid = (from + to) >>> 1;
+            MergeTopK left = new MergeTopK(parts, from, mid, k, order, ticket);
+            left.fork();
+            PriorityQueue<ReportRow> right = new MergeTopK(parts, mid, to, k, order, ticket).compute();
+            PriorityQueue<ReportRow> merged = left.join();
+            for (ReportRow r : right) offer(merged, r);
+            return merged;
+        }
+
+        private void offer(PriorityQueue<ReportRow> heap, ReportRow r) {
+            if (heap.size() < k) {
+                heap.add(r);
+            } else if (order.compare(r, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(r);
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.github.hoangsonww.budget.report;
+
+import lombok.*;
+
+@Data @NoArgsConstructor @AllArgsConstructor
+public class ReportRow {
+    private String key;
+    private long count;
+    private double total;
+}
@@ -0,0 +1,26 @@
+package com.github.hoangsonww.budget.report;
+
+import java.util.concurrent.CancellationException;
+
+/** Cancellation token plus deadline for one report run; checked cooperatively by the engine. */
+public class ReportTicket {
+    private final String token;
+    private final long deadlineNanos;
+    private volatile boolean cancelled;
+
+    public ReportTicket(String token, long timeoutMillis) {
+        this.token = token;
+        this.deadlineNanos = System.nanoTime() + timeoutMillis * 1_000_000L;
+    }
+
+    public String getToken() { return token; }
+    public void cancel() { cancelled = true; }
+    public boolean isCancelled() { return cancelled; }
+    public boolean isExpired() { return remainingNanos() <= 0; }
+    public long remainingNanos() { return deadlineNanos - System.nanoTime(); }
+
+    public void check() {
+        if (cancelled) throw new CancellationException("report " + token + " cancelled");
+        if (isExpired()) throw new CancellationException("report " + token + " timed out");
+    }
+}
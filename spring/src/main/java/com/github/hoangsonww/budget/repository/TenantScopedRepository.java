@@ -0,0 +1,11 @@
+package com.github.hoangsonww.budget.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+/** Repository of a tenant-scoped document; the extra methods are implemented by {@link TenantAwareRepository}. */
+@NoRepositoryBean
+public interface TenantScopedRepository<T, ID> extends MongoRepository<T, ID> {
+    /** Deletes the document if the current tenant has it; false when nothing was deleted. */
+    boolean removeById(ID id);
+}
@@ -1,8 +1,10 @@
 package com.github.hoangsonww.budget.repository;
 
 import com.github.hoangsonww.budget.model.User;
-import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
+import java.util.Optional;
 
 @Repository
-public interface UserRepository extends MongoRepository<User, String> {}
+public interface UserRepository extends TenantScopedRepository<User, String> {
+    Optional<User> findByTenantIdAndUsername(String tenantId, String username);
+}
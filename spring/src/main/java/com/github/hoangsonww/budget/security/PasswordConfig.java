@@ -0,0 +1,21 @@
+package com.github.hoangsonww.budget.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PasswordConfig {
+
+    @Bean(destroyMethod = "close")
+    public PasswordHasher passwordHasher(@Value("${password.hash.threads:0}") int threads,
+                                         @Value("${password.hash.queue-capacity:256}") int queueCapacity,
+                                         @Value("${password.hash.cost:0}") int cost,
+                                         @Value("${password.hash.target-millis:250}") long targetMillis,
+                                         @Value("${password.hash.timeout-millis:5000}") long timeoutMillis,
+                                         MeterRegistry registry) {
+        int n = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new PasswordHasher(n, queueCapacity, cost, targetMillis, timeoutMillis, registry);
+    }
+}
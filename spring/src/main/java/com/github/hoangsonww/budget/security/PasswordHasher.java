@@ -0,0 +1,124 @@
+package com.github.hoangsonww.budget.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt hashing on a dedicated, bounded pool so a login/register burst queues here (and is
+ * rejected once the queue is full) instead of pinning every request thread on CPU.
+ */
+public class PasswordHasher implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(PasswordHasher.class);
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}$");
+    private static final int MIN_COST = 10;
+    private static final int MAX_COST = 16;
+
+    private final ThreadPoolExecutor pool;
+    private final BCryptPasswordEncoder encoder;
+    private final String dummyHash;
+    private final long timeoutMillis;
+    private final Timer hashTimer;
+    private final Timer verifyTimer;
+
+    public PasswordHasher(int threads, int queueCapacity, int cost, long targetMillis, long timeoutMillis,
+                          MeterRegistry registry) {
+        AtomicInteger n = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "password-hasher-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        int strength = cost > 0 ? cost : calibrate(targetMillis);
+        this.encoder = new BCryptPasswordEncoder(strength);
+        this.dummyHash = encoder.encode("not-a-real-password");
+        this.timeoutMillis = timeoutMillis;
+        this.hashTimer = Timer.builder("password.hash.latency").tag("op", "hash").register(registry);
+        this.verifyTimer = Timer.builder("password.hash.latency").tag("op", "verify").register(registry);
+        Gauge.builder("password.hash.queue.depth", pool, p -> p.getQueue().size()).register(registry);
+        Gauge.builder("password.hash.active", pool, ThreadPoolExecutor::getActiveCount).register(registry);
+        log.info("Password hashing: bcrypt cost {} on {} threads, queue {}", strength, threads, queueCapacity);
+    }
+
+    /** Hashes {@code raw} at the configured cost, even when it looks like a bcrypt hash already. */
+    public String hash(String raw) {
+        Objects.requireNonNull(raw, "password");
+        return run(hashTimer, () -> encoder.encode(raw));
+    }
+
+    /**
+     * Verifies a password; a null hash (unknown user) still costs one verification. A stored value
+     * that is not a bcrypt hash is a plaintext password from before hashing: it costs the same
+     * verification and is then compared in constant time. Callers rehash it once it matched.
+     */
+    public boolean matches(String raw, String hash) {
+        if (raw == null) return false;
+        boolean known = hash != null && isHash(hash);
+        String target = known ? hash : dummyHash;
+        boolean ok = run(verifyTimer, () -> encoder.matches(raw, target));
+        if (!known && hash != null && !hash.isEmpty()) return MessageDigest.isEqual(sha256(raw), sha256(hash));
+        return ok && known;
+    }
+
+    public static boolean isHash(String value) { return BCRYPT.matcher(value).matches(); }
+
+    /** Digests first, so the comparison time does not depend on the lengths either. */
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public int getQueueDepth() { return pool.getQueue().size(); }
+
+    private <T> T run(Timer timer, Callable<T> work) {
+        Future<T> f = pool.submit(() -> timer.recordCallable(work));
+        try {
+            return f.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            f.cancel(true);
+            throw new RejectedExecutionException("password hashing timed out");
+        } catch (InterruptedException e) {
+            f.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("password hashing interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /** Highest cost whose single hash on this machine stays within {@code targetMillis}. */
+    private static int calibrate(long targetMillis) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_COST);
+        probe.encode("warm-up");
+        long start = System.nanoTime();
+        probe.encode("calibration");
+        double millis = Math.max(1, (System.nanoTime() - start) / 1_000_000.0);
+        int cost = MIN_COST + (int) Math.floor(Math.log(targetMillis / millis) / Math.log(2));
+        return Math.max(MIN_COST, Math.min(MAX_COST, cost));
+    }
+
+    @Override
+    public void close() { pool.shutdownNow(); }
+}
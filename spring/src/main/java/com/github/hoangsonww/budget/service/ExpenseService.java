@@ -1,16 +1,54 @@
 package com.github.hoangsonww.budget.service;
 
+import com.github.hoangsonww.budget.archive.ArchiveStore;
+import com.github.hoangsonww.budget.cache.MultiGetResult;
+import com.github.hoangsonww.budget.cache.SingleFlight;
+import com.github.hoangsonww.budget.cache.SingleFlightFactory;
 import com.github.hoangsonww.budget.model.Expense;
+import com.github.hoangsonww.budget.outbox.OutboxRecorder;
 import com.github.hoangsonww.budget.repository.ExpenseRepository;
 import org.springframework.stereotype.Service;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class ExpenseService {
     private final ExpenseRepository repo;
-    public ExpenseService(ExpenseRepository repo) { this.repo = repo; }
+    private final OutboxRecorder outbox;
+    private final SingleFlight<Expense> reads;
+    private final VersionedUpdates versions;
+    private final ArchiveStore archive;
+    public ExpenseService(ExpenseRepository repo, OutboxRecorder outbox, SingleFlightFactory flights, VersionedUpdates versions, ArchiveStore archive) {
+        this.repo = repo;
+        this.outbox = outbox;
+        this.reads = flights.create("Expense", Expense.class);
+        this.versions = versions;
+        this.archive = archive;
+    }
     public List<Expense> findAll() { return repo.findAll(); }
-    public Expense findById(String id) { return repo.findById(id).orElse(null); }
-    public Expense save(Expense e) { return repo.save(e); }
-    public void delete(String id) { repo.deleteById(id); }
+    /** Range reads fall through to the monthly archive when the period reaches past the hot tier. */
+    public List<Expense> findByPeriod(Date from, Date to) { return archive.findByCreatedAtBetween(Expense.class, from, to, Expense::getId, Expense::getCreatedAt); }
+    public Expense findById(String id) { return reads.get(id, () -> repo.findById(id).orElse(null)); }
+    public MultiGetResult<Expense> findAllById(List<String> ids) { return reads.getAll(ids, repo::findAllById, Expense::getId); }
+    public Expense save(Expense e) {
+        Expense saved = outbox.saved("Expense", () -> repo.save(e), Expense::getId);
+        reads.invalidate(saved.getId());
+        return saved;
+    }
+    public Expense update(String id, Long expectedVersion, Expense e) {
+        e.setId(id);
+        if (expectedVersion != null) e.setVersion(expectedVersion);
+        else if (e.getVersion() == null) e.setVersion(versions.currentVersion(Expense.class, id));
+        return save(e);
+    }
+    public Expense patch(String id, Long expectedVersion, Map<String, Object> changes) {
+        Expense patched = outbox.saved("Expense", () -> versions.patch(Expense.class, id, expectedVersion, changes), Expense::getId);
+        reads.invalidate(id);
+        return patched;
+    }
+    public void delete(String id) {
+        outbox.deleted("Expense", id, () -> repo.removeById(id));
+        reads.invalidate(id);
+    }
 }
@@ -1,16 +1,54 @@
 package com.github.hoangsonww.budget.service;
 
+import com.github.hoangsonww.budget.archive.ArchiveStore;
+import com.github.hoangsonww.budget.cache.MultiGetResult;
+import com.github.hoangsonww.budget.cache.SingleFlight;
+import com.github.hoangsonww.budget.cache.SingleFlightFactory;
 import com.github.hoangsonww.budget.model.Transaction;
+import com.github.hoangsonww.budget.outbox.OutboxRecorder;
 import com.github.hoangsonww.budget.repository.TransactionRepository;
 import org.springframework.stereotype.Service;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class TransactionService {
     private final TransactionRepository repo;
-    public TransactionService(TransactionRepository repo) { this.repo = repo; }
+    private final OutboxRecorder outbox;
+    private final SingleFlight<Transaction> reads;
+    private final VersionedUpdates versions;
+    private final ArchiveStore archive;
+    public TransactionService(TransactionRepository repo, OutboxRecorder outbox, SingleFlightFactory flights, VersionedUpdates versions, ArchiveStore archive) {
+        this.repo = repo;
+        this.outbox = outbox;
+        this.reads = flights.create("Transaction", Transaction.class);
+        this.versions = versions;
+        this.archive = archive;
+    }
     public List<Transaction> findAll() { return repo.findAll(); }
-    public Transaction findById(String id) { return repo.findById(id).orElse(null); }
-    public Transaction save(Transaction t) { return repo.save(t); }
-    public void delete(String id) { repo.deleteById(id); }
+    /** Range reads fall through to the monthly archive when the period reaches past the hot tier. */
+    public List<Transaction> findByPeriod(Date from, Date to) { return archive.findByCreatedAtBetween(Transaction.class, from, to, Transaction::getId, Transaction::getCreatedAt); }
+    public Transaction findById(String id) { return reads.get(id, () -> repo.findById(id).orElse(null)); }
+    public MultiGetResult<Transaction> findAllById(List<String> ids) { return reads.getAll(ids, repo::findAllById, Transaction::getId); }
+    public Transaction save(Transaction t) {
+        Transaction saved = outbox.saved("Transaction", () -> repo.save(t), Transaction::getId);
+        reads.invalidate(saved.getId());
+        return saved;
+    }
+    public Transaction update(String id, Long expectedVersion, Transaction t) {
+        t.setId(id);
+        if (expectedVersion != null) t.setVersion(expectedVersion);
+        else if (t.getVersion() == null) t.setVersion(versions.currentVersion(Transaction.class, id));
+        return save(t);
+    }
+    public Transaction patch(String id, Long expectedVersion, Map<String, Object> changes) {
+        Transaction patched = outbox.saved("Transaction", () -> versions.patch(Transaction.class, id, expectedVersion, changes), Transaction::getId);
+        reads.invalidate(id);
+        return patched;
+    }
+    public void delete(String id) {
+        outbox.deleted("Transaction", id, () -> repo.removeById(id));
+        reads.invalidate(id);
+    }
 }
@@ -1,16 +1,90 @@
 package com.github.hoangsonww.budget.service;
 
+import com.github.hoangsonww.budget.cache.MultiGetResult;
+import com.github.hoangsonww.budget.cache.SingleFlight;
+import com.github.hoangsonww.budget.cache.SingleFlightFactory;
 import com.github.hoangsonww.budget.model.User;
+import com.github.hoangsonww.budget.outbox.OutboxRecorder;
 import com.github.hoangsonww.budget.repository.UserRepository;
+import com.github.hoangsonww.budget.security.PasswordHasher;
+import com.github.hoangsonww.budget.tenant.TenantContext;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class UserService {
     private final UserRepository repo;
-    public UserService(UserRepository repo) { this.repo = repo; }
+    private final OutboxRecorder outbox;
+    private final SingleFlight<User> reads;
+    private final VersionedUpdates versions;
+    private final PasswordHasher hasher;
+    public UserService(UserRepository repo, OutboxRecorder outbox, SingleFlightFactory flights, VersionedUpdates versions, PasswordHasher hasher) {
+        this.repo = repo;
+        this.outbox = outbox;
+        this.reads = flights.create("User", User.class);
+        this.versions = versions;
+        this.hasher = hasher;
+    }
     public List<User> findAll() { return repo.findAll(); }
-    public User findById(String id) { return repo.findById(id).orElse(null); }
-    public User save(User u) { return repo.save(u); }
-    public void delete(String id) { repo.deleteById(id); }
+    public User findById(String id) { return reads.get(id, () -> repo.findById(id).orElse(null)); }
+    public MultiGetResult<User> findAllById(List<String> ids) { return reads.getAll(ids, repo::findAllById, User::getId); }
+    public User save(User u) {
+        if (u.getPassword() != null) {
+            u.setPassword(hasher.hash(u.getPassword()));
+        } else if (u.getId() != null) {
+            // Passwords are write-only over the API, so a PUT without one keeps the stored hash
+            // (hashing a plaintext one left from before hashing).
+            repo.findById(u.getId()).map(User::getPassword).ifPresent(stored ->
+                    u.setPassword(PasswordHasher.isHash(stored) ? stored : hasher.hash(stored)));
+        }
+        User saved = outbox.saved("User", () -> repo.save(u), User::getId);
+        reads.invalidate(saved.getId());
+        return saved;
+    }
+    public User update(String id, Long expectedVersion, User u) {
+        u.setId(id);
+        if (expectedVersion != null) u.setVersion(expectedVersion);
+        else if (u.getVersion() == null) u.setVersion(versions.currentVersion(User.class, id));
+        return save(u);
+    }
+    public User patch(String id, Long expectedVersion, Map<String, Object> changes) {
+        Map<String, Object> fields = withHashedPassword(changes);
+        User patched = outbox.saved("User", () -> versions.patch(User.class, id, expectedVersion, fields), User::getId);
+        reads.invalidate(id);
+        return patched;
+    }
+    public void delete(String id) {
+        outbox.deleted("User", id, () -> repo.removeById(id));
+        reads.invalidate(id);
+    }
+    public User authenticate(String username, String password) {
+        User u = repo.findByTenantIdAndUsername(TenantContext.current(), username).orElse(null);
+        if (!hasher.matches(password, u == null ? null : u.getPassword())) return null;
+        if (!PasswordHasher.isHash(u.getPassword())) rehash(u, password);
+        return u;
+    }
+    /**
+     * Replaces a plaintext password from before hashing once its owner has logged in with it. This
+     * only changes how the password is stored, so no event is recorded; if the user changed in the
+     * meantime the rehash is skipped and the next login tries again.
+     */
+    private void rehash(User u, String password) {
+        try {
+            versions.patch(User.class, u.getId(), u.getVersion(), Map.of("password", hasher.hash(password)));
+            reads.invalidate(u.getId());
+        } catch (OptimisticLockingFailureException e) {
+            // changed concurrently; still plaintext or already rehashed
+        }
+    }
+    private Map<String, Object> withHashedPassword(Map<String, Object> changes) {
+        if (changes == null || !changes.containsKey("password")) return changes;
+        Object raw = changes.get("password");
+        if (raw == null) throw new IllegalArgumentException("password cannot be removed");
+        Map<String, Object> hashed = new HashMap<>(changes);
+        hashed.put("password", hasher.hash(raw.toString()));
+        return hashed;
+    }
 }
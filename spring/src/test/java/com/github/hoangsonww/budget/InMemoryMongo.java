@@ -0,0 +1,59 @@
+package com.github.hoangsonww.budget;
+
+import com.github.hoangsonww.budget.repository.TenantAwareRepository;
+import com.github.hoangsonww.budget.tenant.Tenancy;
+import com.github.hoangsonww.budget.tenant.TenancyProperties;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+/**
+ * An in-memory MongoDB (mongo-java-server) with a template and repositories wired like the
+ * application's: tenant-aware repositories and a {@code tenancy} bean for the collection names.
+ */
+public final class InMemoryMongo implements AutoCloseable {
+    private final MongoServer server = new MongoServer(new MemoryBackend());
+    private final MongoClient client;
+    private final MongoTemplate template;
+    private final MongoRepositoryFactory repositories;
+
+    public InMemoryMongo(TenancyProperties tenancy) {
+        client = MongoClients.create("mongodb://localhost:" + server.bind().getPort());
+        GenericApplicationContext beans = new GenericApplicationContext();
+        beans.registerBean("tenancy", Tenancy.class, () -> new Tenancy(tenancy));
+        beans.refresh();
+        MongoMappingContext mapping = new MongoMappingContext();
+        mapping.setApplicationContext(beans);
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mapping);
+        converter.afterPropertiesSet();
+        template = new MongoTemplate(new SimpleMongoClientDatabaseFactory(client, "test"), converter);
+        repositories = new MongoRepositoryFactory(template);
+        repositories.setRepositoryBaseClass(TenantAwareRepository.class);
+    }
+
+    public InMemoryMongo() {
+        this(new TenancyProperties());
+    }
+
+    public MongoTemplate template() {
+        return template;
+    }
+
+    public <R> R repository(Class<R> type) {
+        return repositories.getRepository(type);
+    }
+
+    @Override
+    public void close() {
+        client.close();
+        server.shutdownNow();
+    }
+}
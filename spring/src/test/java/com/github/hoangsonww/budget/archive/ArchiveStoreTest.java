@@ -0,0 +1,74 @@
+package com.github.hoangsonww.budget.archive;
+
+import com.github.hoangsonww.budget.InMemoryMongo;
+import com.github.hoangsonww.budget.model.Expense;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArchiveStoreTest {
+    private static final Date CUTOFF = date("2021-01-01T00:00:00Z");
+
+    private final InMemoryMongo mongo = new InMemoryMongo();
+    private final AtomicInteger listings = new AtomicInteger();
+    private final MongoTemplate template = new MongoTemplate(mongo.template().getMongoDatabaseFactory(), mongo.template().getConverter()) {
+        @Override
+        public Set<String> getCollectionNames() {
+            listings.incrementAndGet();
+            return super.getCollectionNames();
+        }
+    };
+    private final ArchiveStore store = new ArchiveStore(template, "zstd", 3600);
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    @Test
+    void rangeReadsMergeBothTiersInCreatedAtOrder() {
+        save("jan", "2020-01-10T00:00:00Z");
+        save("feb", "2020-02-10T00:00:00Z");
+        save("recent", "2022-05-01T00:00:00Z");
+        assertThat(store.archiveBatch(Expense.class, CUTOFF, 100)).isEqualTo(2);
+        // Written after the move with an old date, so it sits in the hot tier between archived rows.
+        save("late", "2020-01-20T00:00:00Z");
+
+        List<Expense> rows = store.findByCreatedAtBetween(Expense.class, date("2019-12-01T00:00:00Z"), null,
+                Expense::getId, Expense::getCreatedAt);
+
+        assertThat(rows).extracting(Expense::getDescription).containsExactly("jan", "late", "feb", "recent");
+        assertThat(template.collectionExists("expenses_archive_202001")).isTrue();
+    }
+
+    @Test
+    void archiveCollectionsAreListedOncePerCacheWindow() {
+        save("jan", "2020-01-10T00:00:00Z");
+        for (int i = 0; i < 3; i++) store.findByCreatedAtBetween(Expense.class, null, null, Expense::getId, Expense::getCreatedAt);
+        assertThat(listings.get()).isEqualTo(1);
+
+        // A month this instance creates is visible at once, without listing again.
+        store.archiveBatch(Expense.class, CUTOFF, 100);
+        assertThat(store.findByCreatedAtBetween(Expense.class, null, null, Expense::getId, Expense::getCreatedAt))
+                .extracting(Expense::getDescription).containsExactly("jan");
+        assertThat(listings.get()).isEqualTo(1);
+
+        store.refreshArchives();
+        assertThat(listings.get()).isEqualTo(2);
+    }
+
+    private void save(String description, String createdAt) {
+        template.save(Expense.builder().description(description).createdAt(date(createdAt)).build());
+    }
+
+    private static Date date(String instant) {
+        return Date.from(Instant.parse(instant));
+    }
+}
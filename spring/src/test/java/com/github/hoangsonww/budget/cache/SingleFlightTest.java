@@ -0,0 +1,121 @@
+package com.github.hoangsonww.budget.cache;
+
+import com.github.hoangsonww.budget.InMemoryMongo;
+import com.github.hoangsonww.budget.model.Expense;
+import com.github.hoangsonww.budget.tenant.TenantContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrentReadsOfOneIdShareOneLoad() throws Exception {
+        SingleFlight<String> flight = new SingleFlight<>(0, 100);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(callers.submit(() -> flight.get("a", () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return "value";
+            })));
+            loading.await();
+            for (int i = 0; i < 7; i++) results.add(callers.submit(() -> flight.get("a", () -> "reloaded")));
+            while (flight.getCollapsed() < 7) Thread.sleep(5);
+            release.countDown();
+
+            for (Future<String> f : results) assertThat(f.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+            assertThat(loads.get()).isEqualTo(1);
+            assertThat(flight.getLoads()).isEqualTo(1);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void aLoadThatRacesWithAnInvalidationIsNotKept() throws Exception {
+        SingleFlight<Long> flight = new SingleFlight<>(60_000, 100);
+        AtomicLong stored = new AtomicLong();
+        ExecutorService readers = Executors.newSingleThreadExecutor();
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                Future<Long> read = readers.submit(() -> flight.get("a", stored::get));
+                stored.incrementAndGet();
+                flight.invalidate("a");
+                read.get(5, TimeUnit.SECONDS);
+
+                assertThat(flight.get("a", stored::get)).isEqualTo(stored.get());
+                flight.invalidate("a");
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    @Test
+    void tenantsNeverShareAnEntry() {
+        SingleFlight<String> flight = new SingleFlight<>(60_000, 100, 10, TenantContext::scopedKey);
+
+        String acme = TenantContext.callAs("acme", () -> flight.get("1", () -> "acme's"));
+        String globex = TenantContext.callAs("globex", () -> flight.get("1", () -> "globex's"));
+
+        assertThat(acme).isEqualTo("acme's");
+        assertThat(globex).isEqualTo("globex's");
+        assertThat(flight.getLoads()).isEqualTo(2);
+        assertThat(TenantContext.callAs("acme", () -> flight.get("1", () -> "reloaded"))).isEqualTo("acme's");
+        assertThat(flight.getWindowHits()).isEqualTo(1);
+    }
+
+    @Test
+    void callersGetTheirOwnCopies() {
+        try (InMemoryMongo mongo = new InMemoryMongo()) {
+            SingleFlight<Expense> flight = new SingleFlightFactory(new SimpleMeterRegistry(),
+                    mongo.template().getConverter(), 60_000, 100, 10).create("Expense", Expense.class);
+            Expense loaded = Expense.builder().id("1").description("lunch").createdAt(new Date(0)).build();
+
+            flight.get("1", () -> loaded).setDescription("changed by the loader's caller");
+            Expense first = flight.get("1", () -> null);
+            first.setDescription("changed by a reader");
+            first.getCreatedAt().setTime(1);
+            Expense second = flight.get("1", () -> null);
+
+            assertThat(second).isNotSameAs(first);
+            assertThat(second.getDescription()).isEqualTo("lunch");
+            assertThat(second.getCreatedAt()).isEqualTo(new Date(0));
+        }
+    }
+
+    @Test
+    void nullIdsAreRejected() {
+        SingleFlight<String> flight = new SingleFlight<>(0, 100);
+
+        assertThatThrownBy(() -> flight.getAll(Arrays.asList("a", null), ids -> List.of(), v -> v))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
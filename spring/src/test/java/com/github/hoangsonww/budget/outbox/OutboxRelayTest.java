@@ -0,0 +1,124 @@
+package com.github.hoangsonww.budget.outbox;
+
+import com.github.hoangsonww.budget.InMemoryMongo;
+import com.github.hoangsonww.budget.model.OutboxEvent;
+import com.github.hoangsonww.budget.repository.OutboxEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutboxRelayTest {
+    private final InMemoryMongo mongo = new InMemoryMongo();
+    private final OutboxEventRepository repo = mongo.repository(OutboxEventRepository.class);
+    private final ScriptedPublisher publisher = new ScriptedPublisher();
+    private final OutboxRelay relay = new OutboxRelay(repo, mongo.template(), publisher, 100, 3, 24);
+    private long clock = 1_000_000;
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    @Test
+    void publishesOldestFirstAndMarksEventsPublished() {
+        OutboxEvent a1 = event("a");
+        OutboxEvent b1 = event("b");
+        OutboxEvent a2 = event("a");
+
+        relay.relay();
+
+        assertThat(publisher.delivered).containsExactly(a1.getId(), b1.getId(), a2.getId());
+        assertThat(repo.findAll()).allSatisfy(e -> assertThat(e.getPublishedAt()).isNotNull());
+    }
+
+    @Test
+    void rejectedEventHoldsBackItsAggregateOnly() {
+        OutboxEvent a1 = event("a");
+        OutboxEvent a2 = event("a");
+        OutboxEvent b1 = event("b");
+        publisher.rejectOnce.add(a1.getId());
+
+        relay.relayBatch();
+
+        assertThat(published()).containsExactly(b1.getId());
+        assertThat(repo.findById(a1.getId()).orElseThrow().getAttempts()).isEqualTo(1);
+        assertThat(repo.findById(a2.getId()).orElseThrow().getAttempts()).isZero();
+
+        publisher.delivered.clear();
+        relay.relayBatch();
+
+        assertThat(publisher.delivered).containsExactly(a1.getId(), a2.getId());
+        assertThat(published()).containsExactlyInAnyOrder(a1.getId(), a2.getId(), b1.getId());
+    }
+
+    @Test
+    void failedPublishCallChargesNoAttempt() {
+        OutboxEvent a1 = event("a");
+        publisher.down = true;
+
+        assertThat(relay.relayBatch()).isZero();
+
+        OutboxEvent stored = repo.findById(a1.getId()).orElseThrow();
+        assertThat(stored.getAttempts()).isZero();
+        assertThat(stored.getPublishedAt()).isNull();
+    }
+
+    @Test
+    void deadLettersAnEventAfterMaxAttemptsAndReleasesItsAggregate() {
+        OutboxEvent poison = event("a");
+        OutboxEvent next = event("a");
+        publisher.rejectAlways.add(poison.getId());
+
+        for (int i = 0; i < 3; i++) relay.relayBatch();
+
+        assertThat(repo.findById(poison.getId())).isEmpty();
+        OutboxEvent dead = mongo.template().findById(poison.getId(), OutboxEvent.class, OutboxRelay.DEAD_LETTERS);
+        assertThat(dead).isNotNull();
+        assertThat(dead.getAttempts()).isEqualTo(3);
+
+        relay.relayBatch();
+        assertThat(published()).containsExactly(next.getId());
+    }
+
+    private OutboxEvent event(String aggregateId) {
+        return repo.save(OutboxEvent.builder()
+                .aggregateType("Expense")
+                .aggregateId(aggregateId)
+                .eventType("ExpenseSaved")
+                .createdAt(new Date(clock++))
+                .build());
+    }
+
+    private List<String> published() {
+        List<String> ids = new ArrayList<>();
+        for (OutboxEvent e : repo.findAll()) if (e.getPublishedAt() != null) ids.add(e.getId());
+        return ids;
+    }
+
+    /** Acknowledges everything except the scripted rejections; {@code down} makes the call itself fail. */
+    private static final class ScriptedPublisher implements EventPublisher {
+        final Set<String> rejectOnce = new HashSet<>();
+        final Set<String> rejectAlways = new HashSet<>();
+        final List<String> delivered = new ArrayList<>();
+        boolean down;
+
+        @Override
+        public Set<String> publish(List<OutboxEvent> batch) {
+            if (down) throw new IllegalStateException("broker unavailable");
+            Set<String> acked = new LinkedHashSet<>();
+            for (OutboxEvent e : batch) {
+                if (rejectAlways.contains(e.getId()) || rejectOnce.remove(e.getId())) continue;
+                delivered.add(e.getId());
+                acked.add(e.getId());
+            }
+            return acked;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.hoangsonww.budget.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveLoadShedderTest {
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void cutsTheLimitOncePerWindowWhileSlow() {
+        AdaptiveLoadShedder shedder = new AdaptiveLoadShedder(8, 200, 250, 1_000);
+        long now = System.nanoTime() + WINDOW;
+
+        for (int i = 0; i < 100; i++) complete(shedder, SLOW, now + i);
+        assertThat(shedder.getLimit()).isEqualTo(180);
+
+        for (int i = 0; i < 100; i++) complete(shedder, SLOW, now + WINDOW + i);
+        assertThat(shedder.getLimit()).isEqualTo(162);
+    }
+
+    @Test
+    void growsByOnePerFastCompletionUpToTheMaximum() {
+        AdaptiveLoadShedder shedder = new AdaptiveLoadShedder(8, 200, 250, 1_000);
+        long now = System.nanoTime() + WINDOW;
+        complete(shedder, SLOW, now);
+        assertThat(shedder.getLimit()).isEqualTo(180);
+
+        // The EWMA needs a few fast samples to fall back under the target.
+        for (int i = 0; i < 100; i++) complete(shedder, FAST, now + i);
+        assertThat(shedder.getLimit()).isGreaterThan(180).isLessThanOrEqualTo(200);
+        for (int i = 0; i < 100; i++) complete(shedder, FAST, now + i);
+        assertThat(shedder.getLimit()).isEqualTo(200);
+    }
+
+    @Test
+    void rejectsBeyondTheLimit() {
+        AdaptiveLoadShedder shedder = new AdaptiveLoadShedder(1, 2, 250);
+        assertThat(shedder.tryAcquire()).isTrue();
+        assertThat(shedder.tryAcquire()).isTrue();
+        assertThat(shedder.tryAcquire()).isFalse();
+        shedder.release(FAST);
+        assertThat(shedder.tryAcquire()).isTrue();
+    }
+
+    private static void complete(AdaptiveLoadShedder shedder, long latency, long now) {
+        assertThat(shedder.tryAcquire()).isTrue();
+        shedder.release(latency, now);
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.hoangsonww.budget.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    @Test
+    void limitsEachClientAddressSeparately() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(props(2, 1), null);
+
+        assertThat(call(filter, "10.0.0.1", null).getStatus()).isEqualTo(200);
+        assertThat(call(filter, "10.0.0.1", null).getStatus()).isEqualTo(200);
+        assertThat(call(filter, "10.0.0.1", null).getStatus()).isEqualTo(429);
+        assertThat(call(filter, "10.0.0.2", null).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void ignoresClientChosenHeaders() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(props(1, 1), null);
+
+        assertThat(call(filter, "10.0.0.1", "a").getStatus()).isEqualTo(200);
+        assertThat(call(filter, "10.0.0.1", "b").getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void retryAfterRoundsUpToWholeSeconds() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(props(1, 0.4), null);
+
+        call(filter, "10.0.0.1", null);
+        MockHttpServletResponse limited = call(filter, "10.0.0.1", null);
+
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(limited.getHeader("Retry-After")).isEqualTo("3");
+    }
+
+    private static RateLimitProperties props(long capacity, double refillPerSecond) {
+        RateLimitProperties props = new RateLimitProperties();
+        props.setDefaultCapacity(capacity);
+        props.setDefaultRefillPerSecond(refillPerSecond);
+        return props;
+    }
+
+    private static MockHttpServletResponse call(RateLimitFilter filter, String address, String apiKey) throws Exception {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/expenses");
+        req.setRemoteAddr(address);
+        if (apiKey != null) req.addHeader("X-API-Key", apiKey);
+        MockHttpServletResponse res = new MockHttpServletResponse();
+        filter.doFilter(req, res, (rq, rs) -> { });
+        return res;
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.hoangsonww.budget.report;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class ReportEngineTest {
+    private final ReportEngine engine = new ReportEngine(4, 3, 16, 64, 8);
+
+    @AfterEach
+    void tearDown() {
+        engine.close();
+    }
+
+    @Test
+    void parallelTopKMatchesASequentialGroupBy() {
+        Random random = new Random(42);
+        List<List<Map.Entry<String, Double>>> slices = new ArrayList<>();
+        for (int s = 0; s < 3; s++) {
+            List<Map.Entry<String, Double>> rows = new ArrayList<>();
+            for (int i = 0; i < 20_000; i++) rows.add(Map.entry("k" + random.nextInt(500), random.nextDouble() * 100));
+            slices.add(rows);
+        }
+        Map<String, ReportRow> expected = new HashMap<>();
+        slices.forEach(rows -> rows.forEach(e -> {
+            ReportRow r = expected.computeIfAbsent(e.getKey(), key -> new ReportRow(key, 0, 0));
+            r.setCount(r.getCount() + 1);
+            r.setTotal(r.getTotal() + e.getValue());
+        }));
+        List<ReportRow> sequential = expected.values().stream()
+                .sorted(ReportEngine.BY_TOTAL.reversed()).limit(10).collect(Collectors.toList());
+        List<Supplier<Iterator<Map.Entry<String, Double>>>> sources = new ArrayList<>();
+        for (List<Map.Entry<String, Double>> rows : slices) sources.add(rows::iterator);
+
+        List<ReportRow> parallel = engine.topK(sources, Map.Entry::getKey, Map.Entry::getValue,
+                ReportEngine.BY_TOTAL, 10, new ReportTicket("t", 60_000));
+
+        assertThat(parallel).extracting(ReportRow::getKey).containsExactlyElementsOf(
+                sequential.stream().map(ReportRow::getKey).collect(Collectors.toList()));
+        for (int i = 0; i < parallel.size(); i++) {
+            assertThat(parallel.get(i).getCount()).isEqualTo(sequential.get(i).getCount());
+            assertThat(parallel.get(i).getTotal()).isCloseTo(sequential.get(i).getTotal(), within(1e-6));
+        }
+    }
+
+    @Test
+    void stopsAtTheDeadline() {
+        ReportTicket ticket = new ReportTicket("slow", 100);
+
+        assertThatThrownBy(() -> engine.topK(slow(), Map.Entry::getKey, Map.Entry::getValue, ReportEngine.BY_COUNT, 10, ticket))
+                .isInstanceOf(CancellationException.class);
+        assertThat(ticket.isExpired()).isTrue();
+    }
+
+    @Test
+    void stopsSoonAfterACancel() {
+        ReportTicket ticket = new ReportTicket("cancelled", 60_000);
+        new Thread(() -> {
+            sleep(100);
+            ticket.cancel();
+        }).start();
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> engine.topK(slow(), Map.Entry::getKey, Map.Entry::getValue, ReportEngine.BY_COUNT, 10, ticket))
+                .isInstanceOf(CancellationException.class);
+        assertThat(ticket.isExpired()).isFalse();
+        assertThat(System.nanoTime() - start).isLessThan(5_000_000_000L);
+    }
+
+    /** An endless source that yields a row every few milliseconds until its thread is interrupted. */
+    static Iterator<Map.Entry<String, Double>> slow() {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return sleep(5);
+            }
+
+            @Override
+            public Map.Entry<String, Double> next() {
+                return Map.entry("k", 1.0);
+            }
+        };
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
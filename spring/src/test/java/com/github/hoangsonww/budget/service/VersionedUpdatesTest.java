@@ -0,0 +1,93 @@
+package com.github.hoangsonww.budget.service;
+
+import com.github.hoangsonww.budget.ApplicationTest;
+import com.github.hoangsonww.budget.tenant.TenantContext;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Conditional PUT over HTTP, and PATCH through the service (the test client cannot send PATCH):
+ * If-Match against the entity version, and atomic PATCH deltas.
+ */
+class VersionedUpdatesTest extends ApplicationTest {
+    @Autowired
+    private ExpenseService expenses;
+
+    @Test
+    void staleIfMatchIsAConflict() {
+        String id = create();
+        assertThat(put(id, "\"0\"", 20).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        assertThat(put(id, "\"0\"", 30).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThatThrownBy(() -> patch(id, 0L, Map.of("amount", 30))).isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(read(call(HttpMethod.GET, "/api/expenses/" + id, "acme", null)).get("amount").asDouble()).isEqualTo(20);
+    }
+
+    @Test
+    void ifMatchOnAMissingIdIsNotFound() {
+        String missing = new ObjectId().toHexString();
+
+        assertThat(put(missing, "\"0\"", 20).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThatThrownBy(() -> patch(missing, 0L, Map.of("amount", 20))).isInstanceOfSatisfying(ResponseStatusException.class,
+                e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.NOT_FOUND));
+        // Another tenant's record is missing for the caller too.
+        assertThat(call(HttpMethod.PUT, "/api/expenses/" + create(), "globex", "{\"amount\":1}", ifMatch("\"0\""))
+                .getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void concurrentPatchesAreAllApplied() throws Exception {
+        String id = create();
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                results.add(clients.submit(() -> patch(id, null, Map.of(VersionedUpdates.INC, Map.of("amount", 1)))));
+            }
+            for (Future<?> f : results) f.get(30, TimeUnit.SECONDS);
+        } finally {
+            clients.shutdownNow();
+        }
+
+        ResponseEntity<String> res = call(HttpMethod.GET, "/api/expenses/" + id, "acme", null);
+        assertThat(read(res).get("amount").asDouble()).isEqualTo(50);
+        assertThat(res.getHeaders().getETag()).isEqualTo("\"40\"");
+    }
+
+    private String create() {
+        ResponseEntity<String> res = call(HttpMethod.POST, "/api/expenses", "acme", "{\"description\":\"versioned\",\"amount\":10}");
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return read(res).get("id").asText();
+    }
+
+    private ResponseEntity<String> put(String id, String ifMatch, double amount) {
+        return call(HttpMethod.PUT, "/api/expenses/" + id, "acme", "{\"description\":\"versioned\",\"amount\":" + amount + "}", ifMatch(ifMatch));
+    }
+
+    private void patch(String id, Long expectedVersion, Map<String, Object> changes) {
+        TenantContext.runAs("acme", () -> expenses.patch(id, expectedVersion, changes));
+    }
+
+    private static HttpHeaders ifMatch(String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        if (etag != null) headers.setIfMatch(etag);
+        return headers;
+    }
+}
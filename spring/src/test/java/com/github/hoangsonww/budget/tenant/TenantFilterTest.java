@@ -0,0 +1,127 @@
+package com.github.hoangsonww.budget.tenant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import javax.servlet.FilterChain;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TenantFilterTest {
+    private static final FilterChain OK = (req, res) -> { };
+
+    private final TenancyProperties props = new TenancyProperties();
+
+    @BeforeEach
+    void setUp() {
+        props.setKnownTenants(Set.of("acme", "globex"));
+        props.setProxySecret("s3cret");
+        props.getQuota().setBurst(2);
+        props.getQuota().setRequestsPerSecond(0.01);
+        props.getQuota().setMaxConcurrent(1);
+    }
+
+    @Test
+    void bindsTheTenantForTheRequestOnly() throws Exception {
+        AtomicReference<String> seen = new AtomicReference<>();
+        MockHttpServletResponse res = call(new TenantFilter(props), " ACME ", (req, r) -> seen.set(TenantContext.current()));
+
+        assertThat(res.getStatus()).isEqualTo(200);
+        assertThat(seen.get()).isEqualTo("acme");
+        assertThat(TenantContext.current()).isNull();
+    }
+
+    @Test
+    void rejectsMalformedAndUnknownTenants() throws Exception {
+        TenantFilter filter = new TenantFilter(props);
+
+        assertThat(call(filter, "acme_x", OK).getStatus()).isEqualTo(400);
+        assertThat(call(filter, "initech", OK).getStatus()).isEqualTo(403);
+    }
+
+    @Test
+    void honoursTheHeaderOnlyFromTheTrustedProxy() throws Exception {
+        TenantFilter filter = new TenantFilter(props);
+
+        assertThat(call(filter, "acme", null, OK).getStatus()).isEqualTo(403);
+        assertThat(call(filter, "acme", "guess", OK).getStatus()).isEqualTo(403);
+        assertThat(call(filter, null, null, OK).getStatus()).isEqualTo(200);
+        props.setProxySecret("");
+        assertThat(call(new TenantFilter(props), "acme", "", OK).getStatus()).isEqualTo(403);
+    }
+
+    @Test
+    void enforcesTheRateQuotaPerTenant() throws Exception {
+        TenantFilter filter = new TenantFilter(props);
+
+        assertThat(call(filter, "acme", OK).getStatus()).isEqualTo(200);
+        assertThat(call(filter, "acme", OK).getStatus()).isEqualTo(200);
+        MockHttpServletResponse limited = call(filter, "acme", OK);
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(limited.getHeader("Retry-After")).isNotNull();
+        assertThat(call(filter, "globex", OK).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void capsConcurrentRequestsPerTenant() throws Exception {
+        TenantFilter filter = new TenantFilter(props);
+        AtomicReference<Integer> sameTenant = new AtomicReference<>();
+        AtomicReference<Integer> otherTenant = new AtomicReference<>();
+
+        call(filter, "acme", (req, res) -> {
+            try {
+                sameTenant.set(call(filter, "acme", OK).getStatus());
+                otherTenant.set(call(filter, "globex", OK).getStatus());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(sameTenant.get()).isEqualTo(429);
+        assertThat(otherTenant.get()).isEqualTo(200);
+    }
+
+    @Test
+    void defaultTenantHasNoQuotaUnlessConfigured() throws Exception {
+        TenantFilter unlimited = new TenantFilter(props);
+        for (int i = 0; i < 10; i++) assertThat(call(unlimited, null, OK).getStatus()).isEqualTo(200);
+
+        TenancyProperties.Quota own = new TenancyProperties.Quota();
+        own.setBurst(1);
+        own.setRequestsPerSecond(0.01);
+        props.getTenants().put("default", own);
+        TenantFilter limited = new TenantFilter(props);
+        assertThat(call(limited, null, OK).getStatus()).isEqualTo(200);
+        assertThat(call(limited, null, OK).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void sweepDropsOnlyIdleQuotas() throws Exception {
+        props.getQuota().setRequestsPerSecond(1_000_000);
+        TenantFilter filter = new TenantFilter(props);
+        TenantQuota idle = filter.quota("acme");
+        TenantQuota busy = filter.quota("globex");
+        busy.inFlight.acquire();
+
+        filter.evictIdle();
+
+        assertThat(filter.quota("acme")).isNotSameAs(idle);
+        assertThat(filter.quota("globex")).isSameAs(busy);
+    }
+
+    private static MockHttpServletResponse call(TenantFilter filter, String tenant, FilterChain chain) throws Exception {
+        return call(filter, tenant, "s3cret", chain);
+    }
+
+    private static MockHttpServletResponse call(TenantFilter filter, String tenant, String proxySecret, FilterChain chain) throws Exception {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/expenses");
+        if (tenant != null) req.addHeader("X-Tenant-Id", tenant);
+        if (proxySecret != null) req.addHeader("X-Tenant-Proxy-Secret", proxySecret);
+        MockHttpServletResponse res = new MockHttpServletResponse();
+        filter.doFilter(req, res, chain);
+        return res;
+    }
+}
@@ -0,0 +1,100 @@
+#!/usr/bin/env bash
+# startup-benchmark.sh
+# --------------------
+# Measures time-to-first-request and resident memory of the Spring Boot backend in each startup mode:
+#   default       - all beans eager, JPA/Hibernate + Mongo
+#   fast-startup  - lazy beans, no JPA bootstrap (spring profile "fast-startup")
+#   fast-cds      - fast-startup plus the AppCDS archive produced by the build
+#   native        - GraalVM native image, when it has been built
+#
+# Build first:
+#   (cd spring && mvn -Pfast-startup package)     # thin jar, lib/ and app-cds.jsa
+#   (cd spring && mvn -Pnative package)           # optional, needs GraalVM
+#   (cd gradle && gradle -Pnative nativeCompile)  # same for the Gradle module
+#
+# Usage: ./startup-benchmark.sh [module-dir] [runs]
+#   PROBE_PATH  path polled until the first response (default "/"; any HTTP status counts)
+#   PORT        server port (default 18080)
+
+set -u
+
+MODULE_DIR="${1:-spring}"
+RUNS="${2:-3}"
+PROBE_PATH="${PROBE_PATH:-/}"
+PORT="${PORT:-18080}"
+TIMEOUT_SECONDS="${TIMEOUT_SECONDS:-120}"
+
+if [ -d "$MODULE_DIR/target" ]; then
+  OUT_DIR="$MODULE_DIR/target"
+  JAR="$(ls "$OUT_DIR"/*.jar 2>/dev/null | grep -v -- '-plain\|sources\|javadoc' | head -1)"
+  NATIVE="$OUT_DIR/budget-backend"
+else
+  OUT_DIR="$MODULE_DIR/build/libs"
+  JAR="$(ls "$OUT_DIR"/*-plain.jar 2>/dev/null | head -1)"
+  NATIVE="$MODULE_DIR/build/native/nativeCompile/budget-backend"
+fi
+CDS="$OUT_DIR/app-cds.jsa"
+
+if [ -z "${JAR:-}" ]; then
+  echo "No jar found under $OUT_DIR - build the module with the fast-startup profile first." >&2
+  exit 1
+fi
+
+now_ms() { date +%s%3N; }
+
+# run_once <label> <command...>; prints "<ms> <rss_kb>" or "FAIL"
+run_once() {
+  local start pid code rss elapsed
+  start="$(now_ms)"
+  "$@" --server.port="$PORT" >/dev/null 2>&1 &
+  pid=$!
+  while true; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "FAIL"
+      return
+    fi
+    code="$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT$PROBE_PATH" || true)"
+    if [ "$code" != "000" ]; then
+      break
+    fi
+    if [ $(( $(now_ms) - start )) -gt $(( TIMEOUT_SECONDS * 1000 )) ]; then
+      kill "$pid" 2>/dev/null
+      echo "FAIL"
+      return
+    fi
+    sleep 0.02
+  done
+  elapsed=$(( $(now_ms) - start ))
+  rss="$(awk '/VmRSS/ {print $2}' "/proc/$pid/status" 2>/dev/null || echo 0)"
+  kill "$pid" 2>/dev/null
+  wait "$pid" 2>/dev/null
+  echo "$elapsed $rss"
+}
+
+bench() {
+  local label="$1"; shift
+  local total_ms=0 total_rss=0 ok=0 i result
+  for i in $(seq 1 "$RUNS"); do
+    result="$(run_once "$@")"
+    if [ "$result" != "FAIL" ]; then
+      total_ms=$(( total_ms + ${result% *} ))
+      total_rss=$(( total_rss + ${result#* } ))
+      ok=$(( ok + 1 ))
+    fi
+  done
+  if [ "$ok" -eq 0 ]; then
+    printf "%-14s %10s %12s\n" "$label" "failed" "-"
+  else
+    printf "%-14s %8d ms %9d MB\n" "$label" $(( total_ms / ok )) $(( total_rss / ok / 1024 ))
+  fi
+}
+
+printf "%-14s %11s %12s   (avg of %s runs, probe %s)\n" "mode" "first-req" "rss" "$RUNS" "$PROBE_PATH"
+bench "default" java -jar "$JAR"
+bench "fast-startup" java -jar "$JAR" --spring.profiles.active=fast-startup
+if [ -f "$CDS" ]; then
+  bench "fast-cds" java -XX:SharedArchiveFile="$CDS" -Xlog:cds=off -jar "$JAR" --spring.profiles.active=fast-startup
+fi
+if [ -x "$NATIVE" ]; then
+  bench "native" "$NATIVE" --spring.profiles.active=fast-startup
+fi